@@ -0,0 +1,4 @@
+#!/bin/sh
+# Runs once when the primary's data directory is initialised: lets standbys stream WAL over the network
+set -e
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -0,0 +1,19 @@
+#!/bin/bash
+# Starts a hot standby of the "postgres" service. The first start clones the primary with
+# pg_basebackup (-R writes primary_conninfo); later starts resume streaming from where it stopped.
+set -e
+export PGDATA="${PGDATA:-/var/lib/postgresql/replica}"
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+  mkdir -p "$PGDATA"
+  chown postgres:postgres "$PGDATA"
+  chmod 700 "$PGDATA"
+  until gosu postgres pg_basebackup --pgdata="$PGDATA" --write-recovery-conf --wal-method=stream \
+      --host="$PRIMARY_HOST" --username="$PGUSER" --no-password; do
+    echo "Waiting for primary $PRIMARY_HOST to accept replication connections..."
+    rm -rf "${PGDATA:?}"/*
+    sleep 2
+  done
+fi
+
+exec gosu postgres postgres -c hot_standby=on
@@ -1,11 +1,77 @@
 -- Initialize expense database with sample data and optimizations
 
+-- expenses is range-partitioned by month on date once ExpensePartitionService has run; indexes
+-- created here on the parent are propagated to every partition
 -- Create indexes for better performance
-CREATE INDEX IF NOT EXISTS idx_expenses_date_desc ON expenses(date DESC);
-CREATE INDEX IF NOT EXISTS idx_expenses_category ON expenses(category);
+-- Keyset pagination walks (date DESC, id DESC); the id tie-breaker keeps cursors stable
+DROP INDEX IF EXISTS idx_expenses_date_desc;
+DROP INDEX IF EXISTS idx_expenses_category;
+-- The included columns let range analytics (date range, optionally one category) run as index-only scans
+DROP INDEX IF EXISTS idx_expenses_date_id_desc;
+DROP INDEX IF EXISTS idx_expenses_category_date_id;
+CREATE INDEX IF NOT EXISTS idx_expenses_date_id_cover ON expenses(date DESC, id DESC) INCLUDE (category, amount);
+CREATE INDEX IF NOT EXISTS idx_expenses_category_date_cover ON expenses(category, date DESC, id DESC) INCLUDE (amount);
 CREATE INDEX IF NOT EXISTS idx_expenses_amount ON expenses(amount);
+
+-- Trigram index so LOWER(description) LIKE '%q%' search is an index lookup rather than a full scan
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_expenses_description_trgm ON expenses USING gin (LOWER(description) gin_trgm_ops);
 CREATE INDEX IF NOT EXISTS idx_expenses_created_at ON expenses(created_at);
 
+-- Extra keyword -> category rules for the rule-based categorizer (lower priority wins)
+CREATE TABLE IF NOT EXISTS category_keywords (
+    keyword VARCHAR(100) PRIMARY KEY,
+    category VARCHAR(50) NOT NULL,
+    priority INT NOT NULL DEFAULT 100
+);
+
+-- Cold expenses moved out of the partitioned table by the archival job (ExpensePartitionService).
+-- Rows arrive in date order, so a BRIN index on date stays a few pages and still bounds range reads
+CREATE TABLE IF NOT EXISTS expenses_archive (
+    id BIGINT NOT NULL,
+    description VARCHAR(500) NOT NULL,
+    amount NUMERIC(10, 2) NOT NULL,
+    date TIMESTAMP(6) NOT NULL,
+    category VARCHAR(50) NOT NULL,
+    ai_insights VARCHAR(1000),
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6)
+);
+CREATE INDEX IF NOT EXISTS idx_expenses_archive_date ON expenses_archive USING brin (date);
+
+-- Applied position of each write-ahead ingestion log (IngestionLog). It advances in the same transaction
+-- as the rows it covers, so replaying the log after a crash inserts every entry exactly once
+CREATE TABLE IF NOT EXISTS ingest_log_offsets (
+    log_name VARCHAR(100) PRIMARY KEY,
+    committed_offset BIGINT NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
+
+-- Ingestion log entries the database rejected as invalid data. Each is written in the same transaction
+-- that moves the log's offset past it
+CREATE TABLE IF NOT EXISTS ingest_log_dead_letters (
+    log_name VARCHAR(100) NOT NULL,
+    log_offset BIGINT NOT NULL,
+    description TEXT NOT NULL,
+    amount DOUBLE PRECISION NOT NULL,
+    expense_date TIMESTAMP(6) NOT NULL,
+    received_at TIMESTAMP(6) NOT NULL,
+    error TEXT NOT NULL,
+    failed_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (log_name, log_offset)
+);
+
+-- Version of the expense data shared by all instances (DataVersion). Writes bump it just before they
+-- commit; ETags and cached insights are keyed on it
+CREATE TABLE IF NOT EXISTS data_versions (
+    name VARCHAR(50) PRIMARY KEY,
+    version BIGINT NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
+
+INSERT INTO data_versions (name, version, updated_at) VALUES ('expenses', 0, CURRENT_TIMESTAMP)
+ON CONFLICT DO NOTHING;
+
 -- Create a view for category summaries
 CREATE OR REPLACE VIEW expense_category_summary AS
 SELECT
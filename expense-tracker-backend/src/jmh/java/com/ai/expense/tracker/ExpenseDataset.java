@@ -0,0 +1,95 @@
+package com.ai.expense.tracker;
+
+import com.ai.expense.tracker.dto.SpendingSummary;
+import com.ai.expense.tracker.model.Expense;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Deterministic synthetic expenses for benchmarks. Descriptions mix merchant names, free text and
+ * keyword-free entries in roughly the proportions seen in real data, so categorizers hit their
+ * early-exit, late-match and no-match paths.
+ */
+public final class ExpenseDataset {
+
+    private static final String[][] MERCHANTS = {
+            {"FOOD", "Whole Foods grocery run", "Lunch at Thai restaurant", "Food truck tacos", "Weekly grocery order"},
+            {"TRANSPORT", "Uber to airport", "Monthly train pass", "Taxi home", "Shell gas station", "Bus ticket downtown"},
+            {"ENTERTAINMENT", "Netflix subscription", "Movie night tickets", "Concert at the arena", "Steam game purchase"},
+            {"BILLS", "Electric bill March", "Water utility", "Apartment rent", "Mortgage payment"},
+            {"HEALTH", "Pharmacy prescription", "Doctor copay", "Hospital parking", "Annual medical checkup"},
+            {"SHOPPING", "Amazon order", "Hardware store", "Outlet mall jeans", "Gift shop souvenir"},
+            {"OTHER", "Haircut", "Donation to shelter", "Birthday present for Sam", "Dry cleaning", "Parking fine",
+                    "Veterinarian visit for Max", "Café au lait", "Bank transfer fee"}
+    };
+
+    private final List<Expense> expenses;
+
+    private ExpenseDataset(List<Expense> expenses) {
+        this.expenses = expenses;
+    }
+
+    public static ExpenseDataset generate(int size) {
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0);
+        List<Expense> expenses = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String[] group = MERCHANTS[random.nextInt(MERCHANTS.length)];
+            String description = group[1 + random.nextInt(group.length - 1)];
+            if (random.nextInt(4) == 0) {
+                description = description + " #" + random.nextInt(10_000);
+            }
+            // Log-normal-ish amounts: mostly small, a long tail of large payments
+            double amount = Math.exp(random.nextGaussian() * 1.1 + 3.0);
+            Expense expense = new Expense(description,
+                    BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).max(new BigDecimal("0.01")),
+                    group[0]);
+            expense.setId((long) i + 1);
+            expense.setDate(start.plusMinutes(random.nextInt(2 * 365 * 24 * 60)));
+            expenses.add(expense);
+        }
+        return new ExpenseDataset(expenses);
+    }
+
+    public List<Expense> expenses() {
+        return expenses;
+    }
+
+    public String[] descriptions() {
+        return expenses.stream().map(Expense::getDescription).toArray(String[]::new);
+    }
+
+    /**
+     * The summary the rollup table would hold for this dataset.
+     */
+    public SpendingSummary summary() {
+        Map<String, List<BigDecimal>> byCategory = new HashMap<>();
+        Map<String, List<BigDecimal>> byMonth = new TreeMap<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (Expense expense : expenses) {
+            byCategory.computeIfAbsent(expense.getCategory(), k -> new ArrayList<>()).add(expense.getAmount());
+            byMonth.computeIfAbsent(YearMonth.from(expense.getDate()).toString(), k -> new ArrayList<>()).add(expense.getAmount());
+            total = total.add(expense.getAmount());
+        }
+        return new SpendingSummary(expenses.size(), total, toStats(byCategory, new HashMap<>()), toStats(byMonth, new TreeMap<>()));
+    }
+
+    private static Map<String, SpendingSummary.BucketStats> toStats(Map<String, List<BigDecimal>> buckets,
+                                                                     Map<String, SpendingSummary.BucketStats> result) {
+        buckets.forEach((key, amounts) -> result.put(key, new SpendingSummary.BucketStats(
+                amounts.size(),
+                amounts.stream().reduce(BigDecimal.ZERO, BigDecimal::add),
+                amounts.stream().min(BigDecimal::compareTo).orElse(null),
+                amounts.stream().max(BigDecimal::compareTo).orElse(null))));
+        return result;
+    }
+}
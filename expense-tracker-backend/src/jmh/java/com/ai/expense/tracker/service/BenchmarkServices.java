@@ -0,0 +1,39 @@
+package com.ai.expense.tracker.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.time.Duration;
+
+/**
+ * Builds services outside a Spring context, with AI, the database and the keyword table disabled,
+ * so benchmarks measure only the in-process code paths.
+ */
+final class BenchmarkServices {
+
+    private BenchmarkServices() {
+    }
+
+    static KeywordCategorizer keywordCategorizer() {
+        return new KeywordCategorizer(new StandardEnvironment(), null, false);
+    }
+
+    // Audit disabled so every confident prediction is answered locally
+    static SimilarityCategorizer similarityCategorizer(MeterRegistry meterRegistry) {
+        return new SimilarityCategorizer(null, meterRegistry, true, 262_144, 5, 0.6, 0.8, 0, 200_000, 0);
+    }
+
+    static AIExpenseService offlineAiService() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CategorizationCache cache = new CategorizationCache(null, meterRegistry, 10_000, Duration.ofHours(24), 0);
+        ModelCallGuard modelCallGuard = new ModelCallGuard(new ConcurrencyLimiter("model", 32, Duration.ofSeconds(2)),
+                meterRegistry, Duration.ofMillis(1500), Duration.ofSeconds(10), Duration.ofSeconds(5), false,
+                5, Duration.ofSeconds(30));
+        return new AIExpenseService(new StaticListableBeanFactory().getBeanProvider(ChatClient.class), false,
+                cache, keywordCategorizer(), meterRegistry, modelCallGuard, similarityCategorizer(meterRegistry),
+                false, 15, 20);
+    }
+}
@@ -0,0 +1,107 @@
+package com.ai.expense.tracker.service;
+
+import com.ai.expense.tracker.ExpenseDataset;
+import com.ai.expense.tracker.model.Expense;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-description categorization cost. Each invocation handles the next description of the
+ * dataset, so larger sizes mainly add variety (and cache pressure) rather than work per call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CategorizationBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private String[] descriptions;
+    private String[] modelResponses;
+    private AIExpenseService aiExpenseService;
+    private SimilarityCategorizer similarityCategorizer;
+    private int next;
+    private int nextResponse;
+
+    @Setup
+    public void setUp() {
+        ExpenseDataset dataset = ExpenseDataset.generate(size);
+        descriptions = dataset.descriptions();
+        modelResponses = new String[]{"FOOD", "Category: TRANSPORT", "bills.", "The category is HEALTH", "Misc"};
+        aiExpenseService = BenchmarkServices.offlineAiService();
+        // Trained on the dataset's own labels, as if every row had been categorized by the model
+        similarityCategorizer = BenchmarkServices.similarityCategorizer(new SimpleMeterRegistry());
+        for (Expense expense : dataset.expenses()) {
+            similarityCategorizer.learn(expense.getDescription(), expense.getCategory());
+        }
+    }
+
+    private String nextDescription() {
+        String description = descriptions[next];
+        next = next + 1 == descriptions.length ? 0 : next + 1;
+        return description;
+    }
+
+    @Benchmark
+    public String fallbackCategorization() {
+        return aiExpenseService.fallbackCategorization(nextDescription());
+    }
+
+    @Benchmark
+    public SimilarityCategorizer.Prediction similarityPredict() {
+        return similarityCategorizer.predict(nextDescription());
+    }
+
+    @Benchmark
+    public String legacyContainsChain() {
+        return legacyFallbackCategorization(nextDescription());
+    }
+
+    @Benchmark
+    public String cleanCategoryResponse() {
+        nextResponse = nextResponse + 1 == modelResponses.length ? 0 : nextResponse + 1;
+        return aiExpenseService.cleanCategoryResponse(modelResponses[nextResponse]);
+    }
+
+    // The if/else chain fallbackCategorization used before the keyword automaton, kept as a baseline
+    static String legacyFallbackCategorization(String description) {
+        String lowerDesc = description.toLowerCase();
+
+        if (lowerDesc.contains("food") || lowerDesc.contains("grocery") || lowerDesc.contains("restaurant")) {
+            return "FOOD";
+        } else if (lowerDesc.contains("bus") || lowerDesc.contains("train") || lowerDesc.contains("uber") ||
+                lowerDesc.contains("taxi") || lowerDesc.contains("gas") || lowerDesc.contains("fuel")) {
+            return "TRANSPORT";
+        } else if (lowerDesc.contains("movie") || lowerDesc.contains("netflix") || lowerDesc.contains("game") ||
+                lowerDesc.contains("concert") || lowerDesc.contains("entertainment")) {
+            return "ENTERTAINMENT";
+        } else if (lowerDesc.contains("bill") || lowerDesc.contains("electric") || lowerDesc.contains("water") ||
+                lowerDesc.contains("rent") || lowerDesc.contains("mortgage")) {
+            return "BILLS";
+        } else if (lowerDesc.contains("medical") || lowerDesc.contains("doctor") || lowerDesc.contains("hospital") ||
+                lowerDesc.contains("pharmacy")) {
+            return "HEALTH";
+        } else if (lowerDesc.contains("shop") || lowerDesc.contains("store") || lowerDesc.contains("mall") ||
+                lowerDesc.contains("amazon")) {
+            return "SHOPPING";
+        } else {
+            return "OTHER";
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.ai.expense.tracker.service;
+
+import com.ai.expense.tracker.ExpenseDataset;
+import com.ai.expense.tracker.dto.ApiResponse;
+import com.ai.expense.tracker.dto.ExpenseResponse;
+import com.ai.expense.tracker.dto.SpendingSummary;
+import com.ai.expense.tracker.model.Expense;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Whole-dataset operations: one invocation maps or serializes all {@code size} expenses, so scores
+ * are datasets per second and gc.alloc.rate.norm is bytes per dataset. The insights helpers work
+ * on the rollup summary and a bounded sample, and should stay flat as {@code size} grows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ExpenseMappingBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private List<Expense> expenses;
+    private ApiResponse<List<ExpenseResponse>> response;
+    private SpendingSummary summary;
+    private AIExpenseService aiExpenseService;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setUp() {
+        ExpenseDataset dataset = ExpenseDataset.generate(size);
+        expenses = dataset.expenses();
+        summary = dataset.summary();
+        response = ApiResponse.success(expenses.stream()
+                .map(ExpenseService::convertToResponse)
+                .collect(Collectors.toList()));
+        aiExpenseService = BenchmarkServices.offlineAiService();
+        // Same defaults Spring Boot applies to the MVC message converter
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = mapper.writerFor(mapper.getTypeFactory().constructParametricType(ApiResponse.class,
+                mapper.getTypeFactory().constructCollectionType(List.class, ExpenseResponse.class)));
+    }
+
+    @Benchmark
+    public List<ExpenseResponse> convertToResponse() {
+        return expenses.stream()
+                .map(ExpenseService::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public void serializeApiResponse() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), response);
+    }
+
+    @Benchmark
+    public String buildExpenseSummary() {
+        return aiExpenseService.buildExpenseSummary(expenses);
+    }
+
+    @Benchmark
+    public String generateFallbackInsights() {
+        return aiExpenseService.generateFallbackInsights(summary);
+    }
+}
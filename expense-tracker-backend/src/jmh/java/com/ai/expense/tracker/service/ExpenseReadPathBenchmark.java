@@ -0,0 +1,147 @@
+package com.ai.expense.tracker.service;
+
+import com.ai.expense.tracker.ExpenseDataset;
+import com.ai.expense.tracker.dto.ExpenseListItem;
+import com.ai.expense.tracker.dto.ExpenseResponse;
+import com.ai.expense.tracker.model.Expense;
+import com.ai.expense.tracker.repository.ExpenseRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * One listing page through the old path (managed entities in a read-write transaction, then
+ * {@link ExpenseService#convertToResponse}) against the projection queries in a read-only
+ * transaction, on an in-memory H2 database. gc.alloc.rate.norm is bytes per page; the database
+ * work is the same for all variants, so the differences are hydration, snapshots and flushing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpenseReadPathBenchmark {
+
+    private static final LocalDateTime FIRST_PAGE = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"50", "200"})
+    public int pageSize;
+
+    private AnnotationConfigApplicationContext context;
+    private ExpenseRepository repository;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(JpaConfig.class);
+        repository = context.getBean(ExpenseRepository.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = ExpenseDataset.generate(rows).expenses().stream()
+                .map(e -> new Object[]{e.getDescription(), e.getAmount(), Timestamp.valueOf(e.getDate()),
+                        e.getCategory(), now, now})
+                .collect(Collectors.toList());
+        context.getBean(JdbcTemplate.class).batchUpdate("INSERT INTO expenses "
+                + "(description, amount, date, category, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)", batch);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ExpenseResponse> entitiesReadWrite() {
+        return readWrite.execute(status -> repository.findAllByOrderByDateDescIdDesc(Limit.of(pageSize + 1)).stream()
+                .map(ExpenseService::convertToResponse)
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public List<ExpenseResponse> entitiesReadOnly() {
+        return readOnly.execute(status -> repository.findAllByOrderByDateDescIdDesc(Limit.of(pageSize + 1)).stream()
+                .map(ExpenseService::convertToResponse)
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public List<ExpenseResponse> projectionFull() {
+        return readOnly.execute(status -> repository.findPageAfter(FIRST_PAGE, Long.MAX_VALUE, Limit.of(pageSize + 1)));
+    }
+
+    @Benchmark
+    public List<ExpenseListItem> projectionCompact() {
+        return readOnly.execute(status -> repository.findItemsAfter(FIRST_PAGE, Long.MAX_VALUE, Limit.of(pageSize + 1)));
+    }
+
+    @Configuration
+    @EnableJpaRepositories(basePackageClasses = ExpenseRepository.class)
+    static class JpaConfig {
+
+        @Bean
+        DataSource dataSource() {
+            return new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        }
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setPackagesToScan(Expense.class.getPackageName());
+            factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            factory.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create"));
+            return factory;
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+    }
+}
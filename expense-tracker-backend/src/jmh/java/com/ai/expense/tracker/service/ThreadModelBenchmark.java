@@ -0,0 +1,89 @@
+package com.ai.expense.tracker.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread-per-request on a 200-thread pool (Tomcat's default) versus a virtual thread per request,
+ * for a burst of {@code requests} concurrent calls that each block on a simulated model round trip
+ * behind the model {@link ConcurrencyLimiter}. Score is wall time to drain the burst.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ThreadModelBenchmark {
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"2000"})
+    public int requests;
+
+    @Param({"50", "400"})
+    public long latencyMillis;
+
+    @Param({"32", "512"})
+    public int modelLimit;
+
+    private ExecutorService executor;
+    private ConcurrencyLimiter limiter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = "virtual".equals(threads)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(200);
+        limiter = new ConcurrencyLimiter("model", modelLimit, Duration.ofMinutes(1));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void burst(Blackhole blackhole) throws Exception {
+        List<Future<String>> futures = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            futures.add(executor.submit(this::handleRequest));
+        }
+        for (Future<String> future : futures) {
+            blackhole.consume(future.get());
+        }
+    }
+
+    private String handleRequest() throws InterruptedException {
+        if (!limiter.tryAcquire()) {
+            return KeywordCategorizer.DEFAULT_CATEGORY;
+        }
+        try {
+            Thread.sleep(latencyMillis);
+            return "FOOD";
+        } finally {
+            limiter.release();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.ai.expense.tracker.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills {@code expenses} with {@code loadtest.seed.rows} synthetic rows before the application
+ * reports ready, so the startup rollup rebuild and cache pre-warm see the seeded data. Rows are
+ * generated in batches and never held in memory all at once. Seeding is skipped when the table
+ * already has at least that many rows.
+ */
+@Component
+@Profile("loadtest")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+class DataSeeder implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSeeder.class);
+
+    static final String[][] MERCHANTS = {
+            {"FOOD", "Whole Foods grocery run", "Lunch at Thai restaurant", "Food truck tacos", "Weekly grocery order"},
+            {"TRANSPORT", "Uber to airport", "Monthly train pass", "Taxi home", "Shell gas station", "Bus ticket downtown"},
+            {"ENTERTAINMENT", "Netflix subscription", "Movie night tickets", "Concert at the arena", "Steam game purchase"},
+            {"BILLS", "Electric bill", "Water utility", "Apartment rent", "Mortgage payment"},
+            {"HEALTH", "Pharmacy prescription", "Doctor copay", "Hospital parking", "Annual medical checkup"},
+            {"SHOPPING", "Amazon order", "Hardware store", "Outlet mall jeans", "Gift shop souvenir"},
+            {"OTHER", "Haircut", "Donation to shelter", "Birthday present", "Dry cleaning", "Parking fine",
+                    "Veterinarian visit", "Bank transfer fee"}
+    };
+
+    private static final String INSERT_SQL = "INSERT INTO expenses (description, amount, date, category, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long rows;
+    private final int batchSize;
+    private final int historyDays;
+
+    DataSeeder(JdbcTemplate jdbcTemplate,
+               @Value("${loadtest.seed.rows:0}") long rows,
+               @Value("${loadtest.seed.batch-size:5000}") int batchSize,
+               @Value("${loadtest.seed.history-days:730}") int historyDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rows = rows;
+        this.batchSize = batchSize;
+        this.historyDays = historyDays;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (rows <= 0) {
+            return;
+        }
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses", Long.class);
+        long missing = rows - (existing != null ? existing : 0);
+        if (missing <= 0) {
+            logger.info("Expenses table already has {} rows, skipping seed", existing);
+            return;
+        }
+
+        logger.info("Seeding {} expenses", missing);
+        long started = System.nanoTime();
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp createdAt = Timestamp.valueOf(now);
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (long i = 0; i < missing; i++) {
+            String[] group = MERCHANTS[random.nextInt(MERCHANTS.length)];
+            String description = group[1 + random.nextInt(group.length - 1)];
+            if (random.nextInt(4) == 0) {
+                description = description + " #" + random.nextInt(10_000);
+            }
+            // Log-normal-ish amounts: mostly small, a long tail of large payments
+            BigDecimal amount = BigDecimal.valueOf(Math.exp(random.nextGaussian() * 1.1 + 3.0))
+                    .setScale(2, RoundingMode.HALF_UP).max(new BigDecimal("0.01"));
+            Timestamp date = Timestamp.valueOf(now.minusMinutes(random.nextInt(historyDays * 24 * 60)));
+            batch.add(new Object[]{description, amount, date, group[0], createdAt, createdAt});
+            if (batch.size() == batchSize) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+                batch.clear();
+            }
+            if ((i + 1) % 100_000 == 0) {
+                logger.info("Seeded {}/{} expenses", i + 1, missing);
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+        }
+        logger.info("Seeded {} expenses in {} s", missing, (System.nanoTime() - started) / 1_000_000_000);
+    }
+}
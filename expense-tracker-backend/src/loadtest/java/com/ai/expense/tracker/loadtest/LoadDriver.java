@@ -0,0 +1,243 @@
+package com.ai.expense.tracker.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Closed-loop HTTP load driver. {@code --concurrency} virtual users each pick an endpoint from the
+ * weighted {@code --mix}, send the request, and immediately send the next one. Latencies recorded
+ * after {@code --warmup} are reported per endpoint as p50/p90/p99/max and requests per second.
+ * <p>
+ * Example: {@code --base-url=http://localhost:8080 --duration=60s --warmup=10s --concurrency=64
+ * --mix=list:40,search:25,category:15,create:15,insights:5 --out=build/reports/loadtest.json}
+ */
+public class LoadDriver {
+
+    private static final String[] CATEGORIES = {"FOOD", "TRANSPORT", "ENTERTAINMENT", "BILLS", "HEALTH", "SHOPPING", "OTHER"};
+    private static final String[] SEARCH_TERMS = {"uber", "grocery", "rent", "netflix", "pharmacy", "amaz", "store", "tacos"};
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String baseUrl;
+    private final Duration requestTimeout;
+
+    LoadDriver(String baseUrl, Duration requestTimeout) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.requestTimeout = requestTimeout;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        LoadDriver driver = new LoadDriver(options.getOrDefault("base-url", "http://localhost:8080"),
+                Duration.ofSeconds(Long.parseLong(options.getOrDefault("request-timeout-s", "30"))));
+        Duration duration = parseDuration(options.getOrDefault("duration", "60s"));
+        Duration warmup = parseDuration(options.getOrDefault("warmup", "10s"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+        Map<String, Integer> mix = parseMix(options.getOrDefault("mix", "list:40,search:25,category:15,create:15,insights:5"));
+
+        Map<String, Stats> results = driver.run(mix, concurrency, warmup, duration);
+        String report = format(results, duration);
+        System.out.println(report);
+        if (options.containsKey("out")) {
+            Path out = Path.of(options.get("out"));
+            if (out.getParent() != null) {
+                Files.createDirectories(out.getParent());
+            }
+            Files.writeString(out, toJson(results, duration, concurrency));
+        }
+    }
+
+    Map<String, Stats> run(Map<String, Integer> mix, int concurrency, Duration warmup, Duration duration)
+            throws InterruptedException {
+        String[] endpoints = mix.keySet().toArray(String[]::new);
+        int[] cumulative = new int[endpoints.length];
+        int sum = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            sum += mix.get(endpoints[i]);
+            cumulative[i] = sum;
+        }
+        int totalWeight = sum;
+
+        long recordFrom = System.nanoTime() + warmup.toNanos();
+        long stopAt = recordFrom + duration.toNanos();
+        List<Map<String, Stats>> perUser = new ArrayList<>();
+        List<Thread> users = new ArrayList<>();
+        for (int u = 0; u < concurrency; u++) {
+            Map<String, Stats> stats = new LinkedHashMap<>();
+            perUser.add(stats);
+            users.add(Thread.ofVirtual().name("load-user-" + u).start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < stopAt) {
+                    int pick = random.nextInt(totalWeight);
+                    int idx = 0;
+                    while (cumulative[idx] <= pick) {
+                        idx++;
+                    }
+                    String endpoint = endpoints[idx];
+                    long start = System.nanoTime();
+                    boolean ok = send(endpoint, random);
+                    long end = System.nanoTime();
+                    if (start >= recordFrom && end <= stopAt) {
+                        stats.computeIfAbsent(endpoint, k -> new Stats()).record(end - start, ok);
+                    }
+                }
+            }));
+        }
+        for (Thread user : users) {
+            user.join();
+        }
+
+        Map<String, Stats> merged = new LinkedHashMap<>();
+        for (String endpoint : endpoints) {
+            Stats total = new Stats();
+            perUser.forEach(stats -> total.merge(stats.get(endpoint)));
+            merged.put(endpoint, total);
+        }
+        return merged;
+    }
+
+    private boolean send(String endpoint, ThreadLocalRandom random) {
+        HttpRequest.Builder request = switch (endpoint) {
+            case "list" -> get("/api/expenses?limit=50");
+            case "search" -> get("/api/expenses/search?limit=50&q="
+                    + URLEncoder.encode(SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)], StandardCharsets.UTF_8));
+            case "category" -> get("/api/expenses/category/" + CATEGORIES[random.nextInt(CATEGORIES.length)] + "?limit=50");
+            case "insights" -> get("/api/expenses/insights");
+            case "create" -> {
+                String[] group = DataSeeder.MERCHANTS[random.nextInt(DataSeeder.MERCHANTS.length)];
+                String description = group[1 + random.nextInt(group.length - 1)] + " #" + random.nextInt(100_000);
+                String body = String.format(Locale.ROOT, "{\"description\":\"%s\",\"amount\":%.2f}",
+                        description, 1 + random.nextDouble() * 200);
+                yield HttpRequest.newBuilder(URI.create(baseUrl + "/api/expenses"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body));
+            }
+            default -> throw new IllegalArgumentException("Unknown endpoint in mix: " + endpoint);
+        };
+        try {
+            HttpResponse<Void> response = client.send(request.timeout(requestTimeout).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() < 400;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+    }
+
+    static String format(Map<String, Stats> results, Duration duration) {
+        double seconds = duration.toMillis() / 1000.0;
+        StringBuilder out = new StringBuilder(String.format(Locale.ROOT, "%-10s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        results.forEach((endpoint, stats) -> out.append(String.format(Locale.ROOT,
+                "%-10s %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n", endpoint, stats.count(), stats.errors,
+                stats.count() / seconds, stats.percentileMillis(0.50), stats.percentileMillis(0.90),
+                stats.percentileMillis(0.99), stats.percentileMillis(1.0))));
+        return out.toString();
+    }
+
+    static String toJson(Map<String, Stats> results, Duration duration, int concurrency) {
+        double seconds = duration.toMillis() / 1000.0;
+        StringBuilder json = new StringBuilder(String.format(Locale.ROOT,
+                "{\"durationSeconds\":%.1f,\"concurrency\":%d,\"endpoints\":{", seconds, concurrency));
+        String separator = "";
+        for (Map.Entry<String, Stats> entry : results.entrySet()) {
+            Stats stats = entry.getValue();
+            json.append(separator).append(String.format(Locale.ROOT,
+                    "\"%s\":{\"requests\":%d,\"errors\":%d,\"rps\":%.2f,\"p50Ms\":%.2f,\"p90Ms\":%.2f,\"p99Ms\":%.2f,\"maxMs\":%.2f}",
+                    entry.getKey(), stats.count(), stats.errors, stats.count() / seconds,
+                    stats.percentileMillis(0.50), stats.percentileMillis(0.90),
+                    stats.percentileMillis(0.99), stats.percentileMillis(1.0)));
+            separator = ",";
+        }
+        return json.append("}}").toString();
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value but got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] kv = part.trim().split(":");
+            weights.put(kv[0], kv.length > 1 ? Integer.parseInt(kv[1]) : 1);
+        }
+        return weights;
+    }
+
+    private static Duration parseDuration(String value) {
+        return value.endsWith("ms") ? Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)))
+                : value.endsWith("m") ? Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)))
+                : Duration.ofSeconds(Long.parseLong(value.replace("s", "")));
+    }
+
+    static final class Stats {
+        private long[] latencies = new long[1024];
+        private int size;
+        private long errors;
+
+        void record(long nanos, boolean ok) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        void merge(Stats other) {
+            if (other == null) {
+                return;
+            }
+            if (size + other.size > latencies.length) {
+                latencies = Arrays.copyOf(latencies, size + other.size);
+            }
+            System.arraycopy(other.latencies, 0, latencies, size, other.size);
+            size += other.size;
+            errors += other.errors;
+        }
+
+        long count() {
+            return size;
+        }
+
+        double percentileMillis(double p) {
+            if (size == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            int idx = (int) Math.min(size - 1, Math.ceil(p * size) - 1);
+            return sorted[Math.max(idx, 0)] / 1_000_000.0;
+        }
+    }
+}
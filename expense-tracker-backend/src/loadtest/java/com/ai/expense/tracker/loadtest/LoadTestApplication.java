@@ -0,0 +1,17 @@
+package com.ai.expense.tracker.loadtest;
+
+import com.ai.expense.tracker.TrackerApplication;
+import org.springframework.boot.SpringApplication;
+
+/**
+ * Starts the tracker with the {@code loadtest} profile: stub chat model, optional data seeding and
+ * an H2 database unless a datasource is configured.
+ */
+public class LoadTestApplication {
+
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(TrackerApplication.class);
+        application.setAdditionalProfiles("loadtest");
+        application.run(args);
+    }
+}
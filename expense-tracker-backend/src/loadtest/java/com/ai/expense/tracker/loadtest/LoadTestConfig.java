@@ -0,0 +1,30 @@
+package com.ai.expense.tracker.loadtest;
+
+import com.ai.expense.tracker.service.KeywordCategorizer;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Wires the stub chat model in place of a real provider when the {@code loadtest} profile is active.
+ */
+@Configuration
+@Profile("loadtest")
+public class LoadTestConfig {
+
+    @Bean
+    StubChatModel stubChatModel(KeywordCategorizer keywordCategorizer,
+                                @Value("${loadtest.ai.median-latency-ms:400}") long medianMillis,
+                                @Value("${loadtest.ai.p99-latency-ms:2000}") long p99Millis,
+                                @Value("${loadtest.ai.per-item-latency-ms:20}") long perItemMillis,
+                                @Value("${loadtest.ai.error-rate:0.01}") double errorRate) {
+        return new StubChatModel(keywordCategorizer, medianMillis, p99Millis, perItemMillis, errorRate);
+    }
+
+    @Bean
+    ChatClient chatClient(StubChatModel stubChatModel) {
+        return ChatClient.builder(stubChatModel).build();
+    }
+}
@@ -0,0 +1,236 @@
+package com.ai.expense.tracker.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cold-start benchmark for the packaged application. Each mode is started {@code --runs} times as a
+ * fresh JVM (after {@code --warmup-runs} discarded starts that warm the OS file cache); a run ends
+ * at the first 200 from {@code --path}. Reported per mode: time to first request, the startup time
+ * Spring logs, and resident set size at that moment (Linux only).
+ * <p>
+ * Modes: {@code default}, {@code fast-startup} (profile), {@code aot} (profile plus
+ * {@code -Dspring.aot.enabled}, needs a jar built with {@code -Paot}), {@code cds} (profile plus the
+ * archive from {@code ./gradlew cdsArchive}) and {@code aot-cds}. The application connects to the
+ * database given by the inherited environment or {@code --app-args}.
+ * <p>
+ * Example: {@code --jar=build/libs/expense-tracker.jar --modes=default,fast-startup --runs=5
+ * --app-args="--spring.datasource.url=jdbc:postgresql://localhost:5432/mydatabase"}
+ */
+public class StartupBenchmark {
+
+    private static final Pattern STARTED = Pattern.compile("Started \\S+ in ([0-9.]+) seconds");
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    private final String java = ProcessHandle.current().info().command().orElse("java");
+    private final Path jar;
+    private final Path cdsDir;
+    private final int port;
+    private final String path;
+    private final Duration timeout;
+    private final List<String> jvmArgs;
+    private final List<String> appArgs;
+
+    StartupBenchmark(Path jar, Path cdsDir, int port, String path, Duration timeout, List<String> jvmArgs,
+                     List<String> appArgs) {
+        this.jar = jar;
+        this.cdsDir = cdsDir;
+        this.port = port;
+        this.path = path;
+        this.timeout = timeout;
+        this.jvmArgs = jvmArgs;
+        this.appArgs = appArgs;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        StartupBenchmark benchmark = new StartupBenchmark(
+                Path.of(options.getOrDefault("jar", "build/libs/expense-tracker.jar")),
+                Path.of(options.getOrDefault("cds-dir", "build/cds/app")),
+                Integer.parseInt(options.getOrDefault("port", "18080")),
+                options.getOrDefault("path", "/api/expenses/health"),
+                Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout-s", "120"))),
+                split(options.getOrDefault("jvm-args", "")),
+                split(options.getOrDefault("app-args", "")));
+        List<String> modes = split(options.getOrDefault("modes", "default,fast-startup").replace(',', ' '));
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        int warmupRuns = Integer.parseInt(options.getOrDefault("warmup-runs", "1"));
+
+        Map<String, List<Run>> results = new LinkedHashMap<>();
+        for (String mode : modes) {
+            for (int i = 0; i < warmupRuns; i++) {
+                benchmark.start(mode);
+            }
+            List<Run> measured = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                Run run = benchmark.start(mode);
+                System.out.printf(Locale.ROOT, "%-14s run %d: %d ms to first request, %.1f MB RSS%n",
+                        mode, i + 1, run.firstRequestMillis(), run.rssBytes() / 1048576.0);
+                measured.add(run);
+            }
+            results.put(mode, measured);
+        }
+
+        System.out.println(format(results));
+        if (options.containsKey("out")) {
+            Path out = Path.of(options.get("out"));
+            if (out.getParent() != null) {
+                Files.createDirectories(out.getParent());
+            }
+            Files.writeString(out, toJson(results));
+        }
+    }
+
+    Run start(String mode) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(jvmArgs);
+        Path launchJar = jar;
+        switch (mode) {
+            case "default" -> {
+            }
+            case "fast-startup" -> command.add("-Dspring.profiles.active=fast-startup");
+            case "aot" -> command.addAll(List.of("-Dspring.profiles.active=fast-startup", "-Dspring.aot.enabled=true"));
+            case "cds", "aot-cds" -> {
+                command.add("-Dspring.profiles.active=fast-startup");
+                if (mode.equals("aot-cds")) {
+                    command.add("-Dspring.aot.enabled=true");
+                }
+                command.add("-XX:SharedArchiveFile=" + cdsDir.resolve("application.jsa"));
+                launchJar = cdsDir.resolve("expense-tracker.jar");
+            }
+            default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+        command.addAll(List.of("-jar", launchJar.toString(), "--server.port=" + port));
+        command.addAll(appArgs);
+
+        Path log = Files.createTempFile("startup-" + mode + "-", ".log");
+        long startedAt = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            long deadline = startedAt + timeout.toNanos();
+            while (!respond()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue() + ", see " + log);
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("No response within " + timeout + ", see " + log);
+                }
+                Thread.sleep(10);
+            }
+            long firstRequestMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            long rss = residentSetSize(process.pid());
+            Matcher started = STARTED.matcher(Files.readString(log));
+            double reportedSeconds = started.find() ? Double.parseDouble(started.group(1)) : Double.NaN;
+            Files.deleteIfExists(log);
+            return new Run(firstRequestMillis, reportedSeconds, rss);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private boolean respond() {
+        try {
+            HttpResponse<Void> response = client.send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).timeout(Duration.ofSeconds(2)).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // VmRSS from procfs; -1 where that is not available
+    private static long residentSetSize(long pid) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not Linux
+        }
+        return -1;
+    }
+
+    static String format(Map<String, List<Run>> results) {
+        StringBuilder out = new StringBuilder(String.format(Locale.ROOT, "%-14s %6s %10s %10s %10s %12s %10s%n",
+                "mode", "runs", "ttfr p50", "ttfr min", "ttfr max", "spring p50", "rss p50"));
+        results.forEach((mode, runs) -> out.append(String.format(Locale.ROOT, "%-14s %6d %8d ms %7d ms %7d ms %10.2f s %7.1f MB%n",
+                mode, runs.size(),
+                median(runs.stream().mapToLong(Run::firstRequestMillis).toArray()),
+                runs.stream().mapToLong(Run::firstRequestMillis).min().orElse(0),
+                runs.stream().mapToLong(Run::firstRequestMillis).max().orElse(0),
+                runs.stream().mapToDouble(Run::reportedSeconds).sorted().skip(runs.size() / 2).findFirst().orElse(Double.NaN),
+                median(runs.stream().mapToLong(Run::rssBytes).toArray()) / 1048576.0)));
+        return out.toString();
+    }
+
+    static String toJson(Map<String, List<Run>> results) {
+        StringBuilder json = new StringBuilder("{");
+        boolean first = true;
+        for (Map.Entry<String, List<Run>> entry : results.entrySet()) {
+            List<Run> runs = entry.getValue();
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append(String.format(Locale.ROOT,
+                    "\"%s\":{\"runs\":%d,\"firstRequestMsP50\":%d,\"firstRequestMs\":%s,\"rssBytesP50\":%d}",
+                    entry.getKey(), runs.size(),
+                    median(runs.stream().mapToLong(Run::firstRequestMillis).toArray()),
+                    Arrays.toString(runs.stream().mapToLong(Run::firstRequestMillis).toArray()).replace(" ", ""),
+                    median(runs.stream().mapToLong(Run::rssBytes).toArray())));
+        }
+        return json.append('}').toString();
+    }
+
+    private static long median(long[] values) {
+        if (values.length == 0) {
+            return 0;
+        }
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static List<String> split(String value) {
+        return value.isBlank() ? List.of() : List.of(value.trim().split("\\s+"));
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int eq = arg.indexOf('=');
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+
+    record Run(long firstRequestMillis, double reportedSeconds, long rssBytes) {
+    }
+}
@@ -0,0 +1,87 @@
+package com.ai.expense.tracker.loadtest;
+
+import com.ai.expense.tracker.service.KeywordCategorizer;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Offline stand-in for the chat model. Each call sleeps for a log-normally distributed latency
+ * (given as median and p99, plus a per-item cost for batched prompts), fails with the configured
+ * probability, and otherwise answers in the format the calling prompt asks for.
+ */
+class StubChatModel implements ChatModel {
+
+    private static final Pattern SINGLE_DESCRIPTION = Pattern.compile("Description: '(.*)'");
+    private static final Pattern NUMBERED_LINE = Pattern.compile("(?m)^(\\d+)\\. (.*)$");
+    private static final double Z_99 = 2.326;
+
+    private static final String INSIGHTS = """
+            🎯 **Spending Patterns:**
+            Most of your spending goes to everyday categories such as food and transport.
+
+            💡 **Smart Recommendations:**
+            Set a monthly budget for your largest category and review it weekly.
+
+            📈 **Optimization Tips:**
+            Cancel subscriptions you no longer use and batch small purchases.
+            """;
+
+    private final KeywordCategorizer keywordCategorizer;
+    private final double mu;
+    private final double sigma;
+    private final long perItemMillis;
+    private final double errorRate;
+
+    StubChatModel(KeywordCategorizer keywordCategorizer, long medianMillis, long p99Millis,
+                  long perItemMillis, double errorRate) {
+        this.keywordCategorizer = keywordCategorizer;
+        this.mu = Math.log(Math.max(1, medianMillis));
+        this.sigma = p99Millis > medianMillis ? Math.log((double) p99Millis / Math.max(1, medianMillis)) / Z_99 : 0;
+        this.perItemMillis = perItemMillis;
+        this.errorRate = errorRate;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        String text = prompt.getContents();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        String answer;
+        int items = 1;
+        Matcher single = SINGLE_DESCRIPTION.matcher(text);
+        if (single.find()) {
+            answer = keywordCategorizer.categorize(single.group(1));
+        } else {
+            Matcher numbered = NUMBERED_LINE.matcher(text);
+            StringBuilder lines = new StringBuilder();
+            items = 0;
+            while (numbered.find()) {
+                lines.append(numbered.group(1)).append(": ")
+                        .append(keywordCategorizer.categorize(numbered.group(2))).append('\n');
+                items++;
+            }
+            answer = items > 0 ? lines.toString() : INSIGHTS;
+            items = Math.max(items, 1);
+        }
+
+        long latency = Math.round(Math.exp(mu + sigma * random.nextGaussian())) + perItemMillis * (items - 1);
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while simulating model latency", e);
+        }
+        if (random.nextDouble() < errorRate) {
+            throw new IllegalStateException("Simulated model failure");
+        }
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(answer))));
+    }
+}
@@ -0,0 +1,49 @@
+package com.ai.expense.tracker.config;
+
+import com.ai.expense.tracker.service.ConcurrencyLimiter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Per-downstream concurrency limits. The model limiter is applied around each chat call; the
+ * database limiter wraps the DataSource so every connection checkout holds a permit.
+ */
+@Configuration
+public class ConcurrencyConfig {
+
+    @Bean
+    public ConcurrencyLimiter modelConcurrencyLimiter(
+            @Value("${app.limits.model.max-concurrent:32}") int maxConcurrent,
+            @Value("${app.limits.model.acquire-timeout:2s}") Duration acquireTimeout) {
+        return new ConcurrencyLimiter("model", maxConcurrent, acquireTimeout);
+    }
+
+    @Bean
+    public ConcurrencyLimiter databaseConcurrencyLimiter(
+            @Value("${app.limits.database.max-concurrent:10}") int maxConcurrent,
+            @Value("${app.limits.database.acquire-timeout:5s}") Duration acquireTimeout) {
+        return new ConcurrencyLimiter("database", maxConcurrent, acquireTimeout);
+    }
+
+    @Bean
+    public static BeanPostProcessor concurrencyLimitedDataSourcePostProcessor(
+            @Qualifier("databaseConcurrencyLimiter") ObjectProvider<ConcurrencyLimiter> limiter,
+            @Value("${app.limits.database.enabled:true}") boolean enabled) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (enabled && bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitedDataSource)) {
+                    return new ConcurrencyLimitedDataSource(dataSource, limiter.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
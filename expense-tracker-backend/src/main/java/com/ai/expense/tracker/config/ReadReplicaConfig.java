@@ -0,0 +1,88 @@
+package com.ai.expense.tracker.config;
+
+import com.ai.expense.tracker.service.DataVersion;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured DataSource when read replicas are enabled. Connections are fetched
+ * lazily, at the first statement, once the transaction's read-only flag is known; read-only
+ * transactions then take their connection from {@link ReadReplicaRouter}, everything else from the
+ * primary pool. The pools are not beans themselves, so the database concurrency limiter wraps only
+ * the routing DataSource and each connection holds one permit.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReadReplicaRouter readReplicaRouter(DataSourceProperties properties, Environment environment,
+                                               DataVersion dataVersion, MeterRegistry meterRegistry,
+                                               @Value("${app.datasource.replicas.urls:}") List<String> urls,
+                                               @Value("${app.datasource.replicas.username:}") String username,
+                                               @Value("${app.datasource.replicas.password:}") String password,
+                                               @Value("${app.datasource.replicas.pool-size:10}") int poolSize,
+                                               @Value("${app.datasource.replicas.connection-timeout:1s}") Duration connectionTimeout,
+                                               @Value("${app.datasource.replicas.max-lag:2s}") Duration maxLag) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (primary.getPoolName() == null) {
+            primary.setPoolName("primary");
+        }
+        primary.setMetricRegistry(meterRegistry);
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setJdbcUrl(url.trim());
+            replica.setDriverClassName(primary.getDriverClassName());
+            replica.setUsername(username.isBlank() ? properties.determineUsername() : username);
+            replica.setPassword(password.isBlank() ? properties.determinePassword() : password);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            replica.setReadOnly(true);
+            // A replica that is down at startup must not keep the application from starting
+            replica.setInitializationFailTimeout(-1);
+            replica.setMetricRegistry(meterRegistry);
+            replicas.add(replica);
+        }
+        return new ReadReplicaRouter(primary, replicas, dataVersion, meterRegistry, maxLag);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRouter router) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(router.getPrimary());
+        dataSource.setReadOnlyDataSource(router.getReadOnlyDataSource());
+        return dataSource;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            @Value("${app.datasource.replicas.read-your-writes-window:5s}") Duration window) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(window));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -0,0 +1,208 @@
+package com.ai.expense.tracker.config;
+
+import com.ai.expense.tracker.service.DataVersion;
+import com.ai.expense.tracker.service.ReadContext;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Owns the primary and replica pools and picks the pool for read-only transactions. A periodic
+ * check samples the primary's WAL position together with the data version, then compares each
+ * replica's replay position against those samples: that gives its lag in time and the newest data
+ * version it is known to contain. Replicas that are unreachable or lag by more than
+ * {@code maxLag} are skipped until a later check passes; with none usable, reads use the primary.
+ */
+class ReadReplicaRouter implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadReplicaRouter.class);
+
+    // At one check per second this is ten minutes of history, far beyond any usable lag
+    private static final int MAX_SAMPLES = 600;
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final DataVersion dataVersion;
+    private final long maxLagMillis;
+    private final DataSource readOnlyDataSource = new ReadOnlyDataSource();
+    private final AtomicInteger next = new AtomicInteger();
+    private final ArrayDeque<WalSample> samples = new ArrayDeque<>();
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+    private final Counter failovers;
+
+    ReadReplicaRouter(HikariDataSource primary, List<HikariDataSource> replicaPools, DataVersion dataVersion,
+                      MeterRegistry meterRegistry, Duration maxLag) {
+        this.primary = primary;
+        this.replicas = replicaPools.stream().map(Replica::new).toList();
+        this.dataVersion = dataVersion;
+        this.maxLagMillis = maxLag.toMillis();
+        this.replicaReads = Counter.builder("expense.datasource.reads").tag("target", "replica").register(meterRegistry);
+        this.primaryReads = Counter.builder("expense.datasource.reads").tag("target", "primary").register(meterRegistry);
+        this.failovers = Counter.builder("expense.datasource.replica.failovers").register(meterRegistry);
+        for (Replica replica : replicas) {
+            Gauge.builder("expense.datasource.replica.lag", replica, r -> r.lagMillis / 1000.0)
+                    .tag("pool", replica.pool.getPoolName())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            Gauge.builder("expense.datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .tag("pool", replica.pool.getPoolName())
+                    .register(meterRegistry);
+        }
+    }
+
+    HikariDataSource getPrimary() {
+        return primary;
+    }
+
+    DataSource getReadOnlyDataSource() {
+        return readOnlyDataSource;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.check-interval-ms:1000}")
+    public void checkReplicas() {
+        long now = System.currentTimeMillis();
+        // Read before the WAL position: every write counted in this version is already in the WAL up to it
+        long version = dataVersion.current();
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT pg_current_wal_lsn()::text")) {
+            rs.next();
+            samples.addLast(new WalSample(version, parseLsn(rs.getString(1)), now));
+            if (samples.size() > MAX_SAMPLES) {
+                samples.removeFirst();
+            }
+        } catch (SQLException e) {
+            logger.warn("Could not read the primary WAL position, keeping replica state: {}", e.getMessage());
+            return;
+        }
+        for (Replica replica : replicas) {
+            check(replica, now);
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+        primary.close();
+    }
+
+    private void check(Replica replica, long now) {
+        try (Connection connection = replica.pool.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT pg_is_in_recovery(), pg_last_wal_replay_lsn()::text")) {
+            rs.next();
+            String replayed = rs.getString(2);
+            if (!rs.getBoolean(1) || replayed == null) {
+                markDown(replica, "not a streaming standby");
+                return;
+            }
+            long replayedLsn = parseLsn(replayed);
+            long lag = 0;
+            for (WalSample sample : samples) {
+                if (sample.lsn() > replayedLsn) {
+                    lag = now - sample.takenAt();
+                    break;
+                }
+                replica.caughtUpVersion = Math.max(replica.caughtUpVersion, sample.version());
+            }
+            replica.lagMillis = lag;
+            if (lag > maxLagMillis) {
+                markDown(replica, "replay lag " + lag + "ms");
+            } else if (!replica.healthy) {
+                replica.healthy = true;
+                logger.info("Read replica {} is serving reads (lag {}ms)", replica.pool.getPoolName(), lag);
+            }
+        } catch (SQLException e) {
+            markDown(replica, e.getMessage());
+        }
+    }
+
+    private void markDown(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            logger.warn("Read replica {} taken out of rotation: {}", replica.pool.getPoolName(), reason);
+        }
+    }
+
+    private Connection readConnection() throws SQLException {
+        Replica replica = ReadContext.replicaAllowed() ? pick() : null;
+        if (replica != null) {
+            try {
+                Connection connection = replica.pool.getConnection();
+                ReadContext.servedFromReplica(replica.caughtUpVersion);
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException e) {
+                // Out until the next check brings it back
+                markDown(replica, e.getMessage());
+                failovers.increment();
+            }
+        }
+        primaryReads.increment();
+        return primary.getConnection();
+    }
+
+    private Replica pick() {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    // An LSN prints as two hex halves, "16/B374D848"
+    private static long parseLsn(String lsn) {
+        int slash = lsn.indexOf('/');
+        return (Long.parseLong(lsn.substring(0, slash), 16) << 32) | Long.parseLong(lsn.substring(slash + 1), 16);
+    }
+
+    private record WalSample(long version, long lsn, long takenAt) {
+    }
+
+    private static final class Replica {
+        final HikariDataSource pool;
+        volatile boolean healthy;
+        volatile long caughtUpVersion = -1;
+        volatile long lagMillis = -1;
+
+        Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+    }
+
+    private final class ReadOnlyDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return readConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new UnsupportedOperationException("Replica routing uses the configured credentials");
+        }
+    }
+}
@@ -1,17 +1,50 @@
 package com.ai.expense.tracker.controller;
 
+import com.ai.expense.tracker.config.AsyncTimeoutConfig;
+import com.ai.expense.tracker.dto.AggregateStats;
 import com.ai.expense.tracker.dto.ApiResponse;
+import com.ai.expense.tracker.dto.BulkImportResponse;
+import com.ai.expense.tracker.dto.CategorizationStatusResponse;
+import com.ai.expense.tracker.dto.CursorPage;
 import com.ai.expense.tracker.dto.ExpenseRequest;
 import com.ai.expense.tracker.dto.ExpenseResponse;
+import com.ai.expense.tracker.dto.RangeBucket;
+import com.ai.expense.tracker.dto.SpendingSummary;
+import com.ai.expense.tracker.service.CategorizationCache;
+import com.ai.expense.tracker.service.CategorizationWorker;
+import com.ai.expense.tracker.service.DataVersion;
+import com.ai.expense.tracker.service.ExpenseChangeFeed;
+import com.ai.expense.tracker.service.ExpenseExportService;
+import com.ai.expense.tracker.service.ExpenseImportService;
+import com.ai.expense.tracker.service.ExpensePartitionService;
 import com.ai.expense.tracker.service.ExpenseService;
+import com.ai.expense.tracker.service.IngestionLog;
+import com.ai.expense.tracker.service.ModelCallGuard;
+import com.ai.expense.tracker.service.SimilarityCategorizer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/expenses")
@@ -21,17 +54,57 @@ public class ExpenseController {
     private static final Logger logger = LoggerFactory.getLogger(ExpenseController.class);
 
     private final ExpenseService expenseService;
+    private final ExpenseExportService expenseExportService;
+    private final ExpenseImportService expenseImportService;
+    private final CategorizationCache categorizationCache;
+    private final SimilarityCategorizer similarityCategorizer;
+    private final ModelCallGuard modelCallGuard;
+    private final ExpensePartitionService partitionService;
+    private final DataVersion dataVersion;
+    private final ExpenseChangeFeed changeFeed;
+    private final IngestionLog ingestionLog;
+    private final ObjectMapper objectMapper;
+    private final boolean insightsServeStale;
+    private final Duration exportTimeout;
 
-    public ExpenseController(ExpenseService expenseService) {
+    public ExpenseController(ExpenseService expenseService, ExpenseExportService expenseExportService,
+                             ExpenseImportService expenseImportService, CategorizationCache categorizationCache,
+                             SimilarityCategorizer similarityCategorizer, ModelCallGuard modelCallGuard, ExpensePartitionService partitionService,
+                             DataVersion dataVersion, ExpenseChangeFeed changeFeed, IngestionLog ingestionLog,
+                             ObjectMapper objectMapper,
+                             @Value("${app.insights.serve-stale:false}") boolean insightsServeStale,
+                             @Value("${app.export.timeout:1h}") Duration exportTimeout) {
         this.expenseService = expenseService;
+        this.expenseExportService = expenseExportService;
+        this.expenseImportService = expenseImportService;
+        this.categorizationCache = categorizationCache;
+        this.similarityCategorizer = similarityCategorizer;
+        this.modelCallGuard = modelCallGuard;
+        this.partitionService = partitionService;
+        this.dataVersion = dataVersion;
+        this.changeFeed = changeFeed;
+        this.ingestionLog = ingestionLog;
+        this.objectMapper = objectMapper;
+        this.insightsServeStale = insightsServeStale;
+        this.exportTimeout = exportTimeout;
     }
 
+    // view=compact returns only id, description, amount, category and date per row
     @GetMapping
-    public ResponseEntity<ApiResponse<List<ExpenseResponse>>> getAllExpenses() {
+    public ResponseEntity<ApiResponse<List<?>>> getAllExpenses(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "0") int limit,
+            @RequestParam(defaultValue = "full") String view, WebRequest webRequest) {
+        if (notModified(webRequest)) {
+            return null;
+        }
         try {
-            logger.info("GET /api/expenses - Fetching all expenses");
-            List<ExpenseResponse> expenses = expenseService.getAllExpenses();
-            return ResponseEntity.ok(ApiResponse.success(expenses));
+            logger.debug("GET /api/expenses - Fetching expenses page");
+            CursorPage<?> page = expenseService.getAllExpenses(cursor, limit, view);
+            return revalidated(ApiResponse.page(page.getItems(), page.getNextCursor()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             logger.error("Error fetching expenses", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -39,14 +112,27 @@ public class ExpenseController {
         }
     }
 
+    // In ingestion log mode the expense is only durably queued: 202 with the log offset, no id yet
     @PostMapping
-    public ResponseEntity<ApiResponse<ExpenseResponse>> createExpense(
+    public ResponseEntity<ApiResponse<?>> createExpense(
             @Valid @RequestBody ExpenseRequest expenseRequest) {
         try {
-            logger.info("POST /api/expenses - Creating new expense: {}", expenseRequest.getDescription());
+            logger.debug("POST /api/expenses - Creating new expense: {}", expenseRequest.getDescription());
+            if (ingestionLog.isEnabled()) {
+                long offset = ingestionLog.append(expenseRequest);
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .body(ApiResponse.success("Expense queued", Map.of("offset", offset, "status", "QUEUED")));
+            }
             ExpenseResponse createdExpense = expenseService.createExpense(expenseRequest);
+            if (CategorizationWorker.PENDING.equals(createdExpense.getCategory())) {
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .body(ApiResponse.success("Expense created, categorization pending", createdExpense));
+            }
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(ApiResponse.success("Expense created successfully", createdExpense));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             logger.error("Error creating expense", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -54,10 +140,66 @@ public class ExpenseController {
         }
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponse<BulkImportResponse>> importExpenses(
+            @RequestBody List<ExpenseRequest> expenseRequests) {
+        try {
+            logger.debug("POST /api/expenses/bulk - Importing {} expenses", expenseRequests.size());
+            BulkImportResponse result = expenseImportService.importExpenses(expenseRequests);
+            return ResponseEntity.ok(ApiResponse.success("Import finished", result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error importing expenses", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to import expenses: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<BulkImportResponse>> importExpensesCsv(
+            @RequestParam("file") MultipartFile file) {
+        try {
+            logger.debug("POST /api/expenses/bulk - Importing CSV upload {}", file.getOriginalFilename());
+            BulkImportResponse result = expenseImportService.importCsv(file.getInputStream());
+            return ResponseEntity.ok(ApiResponse.success("Import finished", result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error importing expenses from CSV", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to import expenses: " + e.getMessage()));
+        }
+    }
+
+    // Incremental change feed; EventSource clients reconnect with Last-Event-ID and resume from there
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        try {
+            return ResponseEntity.ok(changeFeed.subscribe(lastEventId));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Rejected change feed subscription: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @GetMapping("/{id}/categorization")
+    public ResponseEntity<ApiResponse<CategorizationStatusResponse>> getCategorizationStatus(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(expenseService.getCategorizationStatus(id)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error("Expense not found"));
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> deleteExpense(@PathVariable Long id) {
         try {
-            logger.info("DELETE /api/expenses/{} - Deleting expense", id);
+            logger.debug("DELETE /api/expenses/{} - Deleting expense", id);
             expenseService.deleteExpense(id);
             return ResponseEntity.ok(ApiResponse.success("Expense deleted successfully", null));
         } catch (RuntimeException e) {
@@ -72,11 +214,17 @@ public class ExpenseController {
     }
 
     @GetMapping("/insights")
-    public ResponseEntity<ApiResponse<String>> getInsights() {
+    public ResponseEntity<ApiResponse<String>> getInsights(WebRequest webRequest) {
+        // A stale answer is not the representation of the current version, so it gets no validators
+        if (!insightsServeStale && notModified(webRequest)) {
+            return null;
+        }
         try {
-            logger.info("GET /api/expenses/insights - Generating AI insights");
+            logger.debug("GET /api/expenses/insights - Generating AI insights");
             String insights = expenseService.generateInsights();
-            return ResponseEntity.ok(ApiResponse.success(insights));
+            return insightsServeStale
+                    ? ResponseEntity.ok(ApiResponse.success(insights))
+                    : revalidated(ApiResponse.success(insights));
         } catch (Exception e) {
             logger.error("Error generating insights", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -85,12 +233,21 @@ public class ExpenseController {
     }
 
     @GetMapping("/category/{category}")
-    public ResponseEntity<ApiResponse<List<ExpenseResponse>>> getExpensesByCategory(
-            @PathVariable String category) {
+    public ResponseEntity<ApiResponse<List<?>>> getExpensesByCategory(
+            @PathVariable String category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "0") int limit,
+            @RequestParam(defaultValue = "full") String view, WebRequest webRequest) {
+        if (notModified(webRequest)) {
+            return null;
+        }
         try {
-            logger.info("GET /api/expenses/category/{} - Fetching expenses by category", category);
-            List<ExpenseResponse> expenses = expenseService.getExpensesByCategory(category);
-            return ResponseEntity.ok(ApiResponse.success(expenses));
+            logger.debug("GET /api/expenses/category/{} - Fetching expenses by category", category);
+            CursorPage<?> page = expenseService.getExpensesByCategory(category, cursor, limit, view);
+            return revalidated(ApiResponse.page(page.getItems(), page.getNextCursor()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             logger.error("Error fetching expenses by category: {}", category, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -99,12 +256,21 @@ public class ExpenseController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<List<ExpenseResponse>>> searchExpenses(
-            @RequestParam String q) {
+    public ResponseEntity<ApiResponse<List<?>>> searchExpenses(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "0") int limit,
+            @RequestParam(defaultValue = "full") String view, WebRequest webRequest) {
+        if (notModified(webRequest)) {
+            return null;
+        }
         try {
-            logger.info("GET /api/expenses/search?q={} - Searching expenses", q);
-            List<ExpenseResponse> expenses = expenseService.searchExpenses(q);
-            return ResponseEntity.ok(ApiResponse.success(expenses));
+            logger.debug("GET /api/expenses/search?q={} - Searching expenses", q);
+            CursorPage<?> page = expenseService.searchExpenses(q, cursor, limit, view);
+            return revalidated(ApiResponse.page(page.getItems(), page.getNextCursor()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             logger.error("Error searching expenses with query: {}", q, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -112,12 +278,116 @@ public class ExpenseController {
         }
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportExpenses(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String category,
+            HttpServletRequest request) {
+        logger.debug("GET /api/expenses/export?format={} - Streaming export", format);
+        ExpenseExportService.Format exportFormat;
+        try {
+            exportFormat = ExpenseExportService.Format.from(format);
+        } catch (IllegalArgumentException e) {
+            // The declared body is a stream, so the error is written through one
+            ApiResponse<Void> error = ApiResponse.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> out.write(objectMapper.writeValueAsBytes(error)));
+        }
+        // Large exports outlive the default async request timeout; only this stream gets longer
+        request.setAttribute(AsyncTimeoutConfig.TIMEOUT_ATTRIBUTE, exportTimeout);
+        StreamingResponseBody body = out -> expenseExportService.export(exportFormat, from, to, category, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"expenses." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    // Slow path over expenses moved out of the live table by the archival job
+    @GetMapping("/archive")
+    public ResponseEntity<ApiResponse<List<ExpenseResponse>>> getArchivedExpenses(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "0") int limit) {
+        try {
+            logger.debug("GET /api/expenses/archive?from={}&to={} - Reading archived expenses", from, to);
+            return ResponseEntity.ok(ApiResponse.success(partitionService.findArchived(from, to, category, limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error reading archived expenses", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to read archived expenses: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/analytics/snapshot")
+    public ResponseEntity<ApiResponse<Map<String, AggregateStats>>> getSnapshotAnalytics(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "none") String groupBy, WebRequest webRequest) {
+        if (notModified(webRequest)) {
+            return null;
+        }
+        try {
+            logger.debug("GET /api/expenses/analytics/snapshot?groupBy={} - Aggregating in memory", groupBy);
+            return revalidated(ApiResponse.success(
+                    expenseService.getSnapshotAggregates(from, to, category, groupBy)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error aggregating snapshot analytics", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to aggregate expenses: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/analytics/range")
+    public ResponseEntity<ApiResponse<List<RangeBucket>>> getRangeAnalytics(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "month") String bucket,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "false") boolean byCategory, WebRequest webRequest) {
+        if (notModified(webRequest)) {
+            return null;
+        }
+        try {
+            logger.debug("GET /api/expenses/analytics/range?bucket={} - Aggregating in SQL", bucket);
+            return revalidated(ApiResponse.success(
+                    expenseService.getRangeAnalytics(from, to, bucket, category, byCategory)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error aggregating range analytics", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to aggregate expenses: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/stats/total")
-    public ResponseEntity<ApiResponse<Double>> getTotalSpent() {
+    public ResponseEntity<ApiResponse<Double>> getTotalSpent(WebRequest webRequest) {
+        if (notModified(webRequest)) {
+            return null;
+        }
         try {
-            logger.info("GET /api/expenses/stats/total - Getting total spent");
+            logger.debug("GET /api/expenses/stats/total - Getting total spent");
             Double total = expenseService.getTotalSpent();
-            return ResponseEntity.ok(ApiResponse.success(total));
+            return revalidated(ApiResponse.success(total));
         } catch (Exception e) {
             logger.error("Error getting total spent", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -126,11 +396,14 @@ public class ExpenseController {
     }
 
     @GetMapping("/stats/count")
-    public ResponseEntity<ApiResponse<Long>> getTotalCount() {
+    public ResponseEntity<ApiResponse<Long>> getTotalCount(WebRequest webRequest) {
+        if (notModified(webRequest)) {
+            return null;
+        }
         try {
-            logger.info("GET /api/expenses/stats/count - Getting total count");
+            logger.debug("GET /api/expenses/stats/count - Getting total count");
             Long count = expenseService.getTotalCount();
-            return ResponseEntity.ok(ApiResponse.success(count));
+            return revalidated(ApiResponse.success(count));
         } catch (Exception e) {
             logger.error("Error getting total count", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -138,6 +411,79 @@ public class ExpenseController {
         }
     }
 
+    // Totals for every expense, so clients don't have to sum the pages they happen to hold
+    @GetMapping("/stats/summary")
+    public ResponseEntity<ApiResponse<SpendingSummary>> getSpendingSummary(WebRequest webRequest) {
+        if (notModified(webRequest)) {
+            return null;
+        }
+        try {
+            logger.debug("GET /api/expenses/stats/summary - Getting spending summary");
+            SpendingSummary summary = expenseService.getSpendingSummary();
+            return revalidated(ApiResponse.success(summary));
+        } catch (Exception e) {
+            logger.error("Error getting spending summary", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to get spending summary: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/stats/categorization-cache")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCategorizationCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(categorizationCache.getStats()));
+    }
+
+    // LLM-avoidance rate and agreement with the model of the similarity categorizer
+    @GetMapping("/stats/categorization-similarity")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCategorizationSimilarityStats() {
+        return ResponseEntity.ok(ApiResponse.success(similarityCategorizer.getStats()));
+    }
+
+    @GetMapping("/stats/ai")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getAiStats() {
+        return ResponseEntity.ok(ApiResponse.success(modelCallGuard.getStats()));
+    }
+
+    @GetMapping("/stats/ingest")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getIngestStats() {
+        return ResponseEntity.ok(ApiResponse.success(ingestionLog.getStats()));
+    }
+
+    @GetMapping("/stats/partitions")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getPartitionStats() {
+        return ResponseEntity.ok(ApiResponse.success(partitionService.getStats()));
+    }
+
+    // Locks expenses for the whole copy: run it in a maintenance window, then follow /stats/partitions
+    @PostMapping("/admin/partitions/convert")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> convertToPartitioned() {
+        try {
+            partitionService.startConversion();
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(ApiResponse.success("Partition conversion started", partitionService.getStats()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Answers 304 from the data version alone, before any query or serialization runs. Otherwise
+     * the ETag and Last-Modified headers are already set on the response for the 200 that follows.
+     * The version is read before the data, so a concurrent write can only make the tag older than
+     * the body, which costs the client one extra full response but never a stale one.
+     */
+    private boolean notModified(WebRequest webRequest) {
+        DataVersion.Snapshot version = dataVersion.read();
+        return webRequest.checkNotModified(dataVersion.etag(version), version.lastModified());
+    }
+
+    // no-cache: browsers keep the body but revalidate every time instead of guessing a freshness lifetime.
+    // The tag is taken again because a body read from a lagging replica is labelled with an older version
+    private <T> ResponseEntity<T> revalidated(T body) {
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(dataVersion.etag()).body(body);
+    }
+
     @GetMapping("/health")
     public ResponseEntity<ApiResponse<String>> healthCheck() {
         return ResponseEntity.ok(ApiResponse.success("Service is healthy", null));
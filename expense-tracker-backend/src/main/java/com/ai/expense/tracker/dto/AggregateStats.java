@@ -0,0 +1,33 @@
+package com.ai.expense.tracker.dto;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Count, sum, average, min and max of expense amounts over some set of rows.
+ */
+@Getter
+public class AggregateStats {
+    private final long count;
+    private final BigDecimal total;
+    private final BigDecimal average;
+    private final BigDecimal min;
+    private final BigDecimal max;
+
+    public AggregateStats(long count, BigDecimal total, BigDecimal min, BigDecimal max) {
+        this.count = count;
+        this.total = total;
+        this.average = count > 0 ? total.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP) : null;
+        this.min = min;
+        this.max = max;
+    }
+
+    public static AggregateStats ofCents(long count, long totalCents, long minCents, long maxCents) {
+        return count == 0
+                ? new AggregateStats(0, BigDecimal.ZERO.setScale(2), null, null)
+                : new AggregateStats(count, BigDecimal.valueOf(totalCents, 2),
+                        BigDecimal.valueOf(minCents, 2), BigDecimal.valueOf(maxCents, 2));
+    }
+}
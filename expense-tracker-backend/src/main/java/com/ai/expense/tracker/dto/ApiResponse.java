@@ -13,6 +13,7 @@ public class ApiResponse<T> {
     private String message;
     private T data;
     private String error;
+    private String nextCursor;
 
     // Constructors
     public ApiResponse() {
@@ -38,6 +39,12 @@ public class ApiResponse<T> {
         return new ApiResponse<>(true, message, data);
     }
 
+    public static <T> ApiResponse<T> page(T data, String nextCursor) {
+        ApiResponse<T> response = new ApiResponse<>(true, "Operation successful", data);
+        response.setNextCursor(nextCursor);
+        return response;
+    }
+
     public static <T> ApiResponse<T> error(String error) {
         return new ApiResponse<>(false, error);
     }
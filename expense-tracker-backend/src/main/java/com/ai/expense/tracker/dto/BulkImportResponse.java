@@ -0,0 +1,39 @@
+package com.ai.expense.tracker.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class BulkImportResponse {
+    private int received;
+    private int imported;
+    private int failed;
+    private List<RowError> errors = new ArrayList<>();
+
+    public BulkImportResponse() {
+    }
+
+    public BulkImportResponse(int received) {
+        this.received = received;
+    }
+
+    public void addError(int row, String message) {
+        errors.add(new RowError(row, message));
+        failed++;
+    }
+
+    @Getter
+    public static class RowError {
+        private final int row; // 1-based position in the submitted payload
+        private final String message;
+
+        public RowError(int row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+    }
+}
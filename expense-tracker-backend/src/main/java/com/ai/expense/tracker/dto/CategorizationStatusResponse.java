@@ -0,0 +1,17 @@
+package com.ai.expense.tracker.dto;
+
+import lombok.Getter;
+
+@Getter
+public class CategorizationStatusResponse {
+    private final Long id;
+    private final String status; // PENDING or CATEGORIZED
+    private final String category;
+
+    public CategorizationStatusResponse(Long id, String category) {
+        this.id = id;
+        boolean pending = "PENDING".equals(category);
+        this.status = pending ? "PENDING" : "CATEGORIZED";
+        this.category = pending ? null : category;
+    }
+}
@@ -0,0 +1,16 @@
+package com.ai.expense.tracker.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class CursorPage<T> {
+    private final List<T> items;
+    private final String nextCursor; // null when this is the last page
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,50 @@
+package com.ai.expense.tracker.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position for expense listings ordered by (date DESC, id DESC), optionally preceded
+ * by a relevance rank for search results. Clients receive it as a base64url token and pass it back
+ * unchanged.
+ */
+public record ExpenseCursor(int rank, LocalDateTime date, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public ExpenseCursor(LocalDateTime date, Long id) {
+        this(0, date, id);
+    }
+
+    public static ExpenseCursor of(ExpenseResponse expense) {
+        return new ExpenseCursor(expense.getDate(), expense.getId());
+    }
+
+    public static ExpenseCursor of(int rank, ExpenseResponse expense) {
+        return new ExpenseCursor(rank, expense.getDate(), expense.getId());
+    }
+
+    public String encode() {
+        String raw = String.valueOf(rank) + SEPARATOR + date + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ExpenseCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            return new ExpenseCursor(
+                    Integer.parseInt(parts[0]),
+                    LocalDateTime.parse(parts[1]),
+                    Long.parseLong(parts[2]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.ai.expense.tracker.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Compact listing row ({@code view=compact}): the fields the dashboard renders, without AI
+ * insights or audit timestamps. Built directly by a JPQL constructor expression.
+ */
+public record ExpenseListItem(Long id, String description, Double amount, String category,
+                              @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") LocalDateTime date) {
+
+    public ExpenseListItem(Long id, String description, BigDecimal amount, String category, LocalDateTime date) {
+        this(id, description, amount == null ? null : amount.doubleValue(), category, date);
+    }
+}
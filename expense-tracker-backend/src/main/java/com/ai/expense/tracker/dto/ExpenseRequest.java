@@ -1,8 +1,10 @@
 package com.ai.expense.tracker.dto;
 
+import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -11,11 +13,14 @@ import lombok.Setter;
 @Setter
 public class ExpenseRequest {
 
+    // Limits match the expenses columns (VARCHAR(500), NUMERIC(10,2))
     @NotBlank(message = "Description is required")
+    @Size(max = 500, message = "Description must be at most 500 characters")
     private String description;
 
     @NotNull(message = "Amount is required")
     @Positive(message = "Amount must be positive")
+    @DecimalMax(value = "99999999.99", message = "Amount must be at most 99999999.99")
     private Double amount;
 
     private String date; // Optional, will use current time if not provided
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Getter
@@ -39,5 +40,13 @@ public class ExpenseResponse {
         this.aiInsights = aiInsights;
     }
 
+    // Used by the repository's constructor-expression projections, so no entity is hydrated
+    public ExpenseResponse(Long id, String description, BigDecimal amount, String category, LocalDateTime date,
+                           String aiInsights, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, description, amount == null ? null : amount.doubleValue(), category, date, aiInsights);
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
     // Lombok generates getters and setters
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.ai.expense.tracker.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * One time bucket of a range analytics query; {@code category} is set only for per-category splits.
+ */
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RangeBucket {
+    private final LocalDate bucketStart;
+    private final String category;
+    @JsonUnwrapped
+    private final AggregateStats stats;
+
+    public RangeBucket(LocalDate bucketStart, String category, AggregateStats stats) {
+        this.bucketStart = bucketStart;
+        this.category = category;
+        this.stats = stats;
+    }
+}
@@ -0,0 +1,40 @@
+package com.ai.expense.tracker.dto;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Aggregate view of all expenses, assembled from the rollup table rather than from the rows.
+ */
+@Getter
+public class SpendingSummary {
+    private final long totalCount;
+    private final BigDecimal totalAmount;
+    private final Map<String, BucketStats> byCategory;
+    private final Map<String, BucketStats> byMonth; // keyed yyyy-MM, ascending
+
+    public SpendingSummary(long totalCount, BigDecimal totalAmount,
+                           Map<String, BucketStats> byCategory, Map<String, BucketStats> byMonth) {
+        this.totalCount = totalCount;
+        this.totalAmount = totalAmount;
+        this.byCategory = byCategory;
+        this.byMonth = byMonth;
+    }
+
+    @Getter
+    public static class BucketStats {
+        private final long count;
+        private final BigDecimal total;
+        private final BigDecimal min;
+        private final BigDecimal max;
+
+        public BucketStats(long count, BigDecimal total, BigDecimal min, BigDecimal max) {
+            this.count = count;
+            this.total = total;
+            this.min = min;
+            this.max = max;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.ai.expense.tracker.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Running aggregate for one bucket of expenses, e.g. {@code CATEGORY:FOOD} or {@code MONTH:2025-01}.
+ * Maintained in the same transaction as every expense write so reads never scan {@code expenses}.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "expense_rollups")
+public class ExpenseRollup {
+
+    public static final String CATEGORY = "CATEGORY";
+    public static final String MONTH = "MONTH";
+
+    @Id
+    @Column(length = 80)
+    private String bucket;
+
+    @Column(nullable = false, length = 20)
+    private String dimension;
+
+    @Column(name = "bucket_key", nullable = false, length = 50)
+    private String bucketKey;
+
+    @Column(name = "expense_count", nullable = false)
+    private long count;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal total = BigDecimal.ZERO;
+
+    @Column(name = "min_amount", precision = 10, scale = 2)
+    private BigDecimal minAmount;
+
+    @Column(name = "max_amount", precision = 10, scale = 2)
+    private BigDecimal maxAmount;
+
+    public ExpenseRollup() {
+    }
+
+    public ExpenseRollup(String dimension, String bucketKey) {
+        this.bucket = bucketId(dimension, bucketKey);
+        this.dimension = dimension;
+        this.bucketKey = bucketKey;
+    }
+
+    public static String bucketId(String dimension, String bucketKey) {
+        return dimension + ":" + bucketKey;
+    }
+}
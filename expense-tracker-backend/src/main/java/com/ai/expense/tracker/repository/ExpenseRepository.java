@@ -1,29 +1,138 @@
 package com.ai.expense.tracker.repository;
 
+import com.ai.expense.tracker.dto.ExpenseListItem;
+import com.ai.expense.tracker.dto.ExpenseResponse;
 import com.ai.expense.tracker.model.Expense;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
 
-    List<Expense> findAllByOrderByDateDesc();
+    List<Expense> findAllByOrderByDateDescIdDesc(Limit limit);
 
-    List<Expense> findByCategoryOrderByDateDesc(String category);
+    // Read path: listing queries project straight into response DTOs, so no entity is hydrated,
+    // snapshotted for dirty checking or copied afterwards. COMPACT leaves out ai_insights and the
+    // audit columns for clients that only render the list.
+    String FULL = "SELECT new com.ai.expense.tracker.dto.ExpenseResponse(e.id, e.description, e.amount, e.category, " +
+            "e.date, e.aiInsights, e.createdAt, e.updatedAt) FROM Expense e ";
+    String COMPACT = "SELECT new com.ai.expense.tracker.dto.ExpenseListItem(e.id, e.description, e.amount, e.category, " +
+            "e.date) FROM Expense e ";
+
+    // Keyset pagination: rows are ordered by (date DESC, id DESC) to match idx_expenses_date_id_cover,
+    // and each query resumes strictly below the last (date, id) seen by the client; the first page
+    // passes a far-future sentinel. The plain e.date <= :date bound is implied by the row comparison
+    // but is what lets Postgres prune partitions.
+    String PAGE_AFTER = "e.date <= :date AND (e.date, e.id) < (:date, :id) ORDER BY e.date DESC, e.id DESC";
+
+    @Query(FULL + "WHERE " + PAGE_AFTER)
+    List<ExpenseResponse> findPageAfter(LocalDateTime date, Long id, Limit limit);
+
+    @Query(COMPACT + "WHERE " + PAGE_AFTER)
+    List<ExpenseListItem> findItemsAfter(LocalDateTime date, Long id, Limit limit);
+
+    @Query(FULL + "WHERE e.category = :category AND " + PAGE_AFTER)
+    List<ExpenseResponse> findCategoryPageAfter(String category, LocalDateTime date, Long id, Limit limit);
+
+    @Query(COMPACT + "WHERE e.category = :category AND " + PAGE_AFTER)
+    List<ExpenseListItem> findCategoryItemsAfter(String category, LocalDateTime date, Long id, Limit limit);
+
+    // Ranked search: 0 = description starts with the query, 1 = a word starts with it, 2 = contains it.
+    // The patterns are pre-lowercased and LIKE-escaped by the caller; on Postgres the substring test
+    // is served by the trigram index idx_expenses_description_trgm instead of a full scan. The first
+    // page passes rank -1.
+    String SEARCH_RANK = "CASE WHEN LOWER(e.description) LIKE :prefix ESCAPE '!' THEN 0 " +
+            "WHEN LOWER(e.description) LIKE :wordPrefix ESCAPE '!' THEN 1 ELSE 2 END";
+
+    String SEARCH_AFTER = "WHERE LOWER(e.description) LIKE :contains ESCAPE '!' " +
+            "AND (" + SEARCH_RANK + " > :rank OR (" + SEARCH_RANK + " = :rank AND (e.date, e.id) < (:date, :id))) " +
+            "ORDER BY " + SEARCH_RANK + ", e.date DESC, e.id DESC";
+
+    @Query(FULL + SEARCH_AFTER)
+    List<ExpenseResponse> searchPageAfter(String contains, String prefix, String wordPrefix,
+                                          int rank, LocalDateTime date, Long id, Limit limit);
+
+    @Query(COMPACT + SEARCH_AFTER)
+    List<ExpenseListItem> searchItemsAfter(String contains, String prefix, String wordPrefix,
+                                           int rank, LocalDateTime date, Long id, Limit limit);
+
+    // Server-side cursor for exports: the fetch size makes the driver pull rows in chunks
+    // instead of materializing the whole result set (requires an open transaction on Postgres).
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM Expense e WHERE (:from IS NULL OR e.date >= :from) AND (:to IS NULL OR e.date < :to) " +
+            "AND (:category IS NULL OR e.category = :category) ORDER BY e.date DESC, e.id DESC")
+    Stream<Expense> streamForExport(LocalDateTime from, LocalDateTime to, String category);
+
+    @Query("SELECT e.description, e.category FROM Expense e WHERE e.category <> 'PENDING' ORDER BY e.date DESC, e.id DESC")
+    List<Object[]> findRecentCategorizations(Limit limit);
+
+    @Query("SELECT e.id, e.description FROM Expense e WHERE e.category = :category ORDER BY e.id")
+    List<Object[]> findIdAndDescriptionByCategory(String category, Limit limit);
+
+    // Guarded on PENDING so a late or duplicate worker never overwrites a finished categorization.
+    // Writes by id also carry the row's date so only one monthly partition is touched.
+    @Modifying
+    @Transactional
+    @Query("UPDATE Expense e SET e.category = :category, e.updatedAt = :updatedAt " +
+            "WHERE e.id = :id AND e.date = :date AND e.category = 'PENDING'")
+    int updatePendingCategory(Long id, LocalDateTime date, String category, LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("DELETE FROM Expense e WHERE e.id = :id AND e.date = :date")
+    int deleteByIdAndDate(Long id, LocalDateTime date);
+
+    // Full aggregations used only to (re)build expense_rollups; request paths read the rollups instead
+    @Query("SELECT e.category, COUNT(e), SUM(e.amount), MIN(e.amount), MAX(e.amount) FROM Expense e GROUP BY e.category")
+    List<Object[]> aggregateByCategory();
+
+    @Query("SELECT year(e.date), month(e.date), COUNT(e), SUM(e.amount), MIN(e.amount), MAX(e.amount) " +
+            "FROM Expense e GROUP BY year(e.date), month(e.date)")
+    List<Object[]> aggregateByMonth();
+
+    @Query("SELECT MIN(e.amount), MAX(e.amount) FROM Expense e WHERE e.category = :category")
+    List<Object[]> findAmountBoundsForCategory(String category);
+
+    @Query("SELECT MIN(e.amount), MAX(e.amount) FROM Expense e WHERE e.date >= :from AND e.date < :to")
+    List<Object[]> findAmountBoundsBetween(LocalDateTime from, LocalDateTime to);
+
+    // Range analytics: :unit is a date_trunc field (day, week, month). Bucketing and aggregation run in
+    // the database over the covering (date) / (category, date) indexes; only one row per bucket comes back.
+
+    @Query(value = "SELECT date_trunc(:unit, e.date) AS bucket, COUNT(*), SUM(e.amount), MIN(e.amount), MAX(e.amount) " +
+            "FROM expenses e WHERE e.date >= :from AND e.date < :to GROUP BY 1 ORDER BY 1", nativeQuery = true)
+    List<Object[]> aggregateRange(String unit, LocalDateTime from, LocalDateTime to);
+
+    @Query(value = "SELECT date_trunc(:unit, e.date) AS bucket, COUNT(*), SUM(e.amount), MIN(e.amount), MAX(e.amount) " +
+            "FROM expenses e WHERE e.category = :category AND e.date >= :from AND e.date < :to " +
+            "GROUP BY 1 ORDER BY 1", nativeQuery = true)
+    List<Object[]> aggregateRangeForCategory(String unit, String category, LocalDateTime from, LocalDateTime to);
+
+    @Query(value = "SELECT date_trunc(:unit, e.date) AS bucket, e.category, COUNT(*), SUM(e.amount), MIN(e.amount), " +
+            "MAX(e.amount) FROM expenses e WHERE e.date >= :from AND e.date < :to GROUP BY 1, 2 ORDER BY 1, 2",
+            nativeQuery = true)
+    List<Object[]> aggregateRangeByCategory(String unit, LocalDateTime from, LocalDateTime to);
 
     @Query("SELECT e.category, SUM(e.amount) FROM Expense e GROUP BY e.category")
     List<Object[]> findCategoryTotals();
 
-    @Query("SELECT e FROM Expense e WHERE LOWER(e.description) LIKE LOWER(CONCAT('%', :query, '%'))")
-    List<Expense> findByDescriptionContainingIgnoreCase(String query);
-
     @Query("SELECT SUM(e.amount) FROM Expense e")
     BigDecimal getTotalAmount();
 
     @Query("SELECT COUNT(e) FROM Expense e")
     Long getTotalCount();
-}
\ No newline at end of file
+}
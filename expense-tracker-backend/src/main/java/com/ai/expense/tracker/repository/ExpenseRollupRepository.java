@@ -0,0 +1,35 @@
+package com.ai.expense.tracker.repository;
+
+import com.ai.expense.tracker.model.ExpenseRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+
+@Repository
+public interface ExpenseRollupRepository extends JpaRepository<ExpenseRollup, String> {
+
+    // Creates an empty bucket on the caller's connection; a row created concurrently is left as it is
+    @Modifying
+    @Query(value = "INSERT INTO expense_rollups (bucket, dimension, bucket_key, expense_count, total) " +
+            "VALUES (:bucket, :dimension, :bucketKey, 0, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int createIfAbsent(String bucket, String dimension, String bucketKey);
+
+    // Applied as a single UPDATE so concurrent writers never lose each other's deltas
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ExpenseRollup r SET r.count = r.count + :count, r.total = r.total + :sum, " +
+            "r.minAmount = CASE WHEN r.minAmount IS NULL OR :min < r.minAmount THEN :min ELSE r.minAmount END, " +
+            "r.maxAmount = CASE WHEN r.maxAmount IS NULL OR :max > r.maxAmount THEN :max ELSE r.maxAmount END " +
+            "WHERE r.bucket = :bucket")
+    int add(String bucket, long count, BigDecimal sum, BigDecimal min, BigDecimal max);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ExpenseRollup r SET r.count = r.count - :count, r.total = r.total - :sum WHERE r.bucket = :bucket")
+    int subtract(String bucket, long count, BigDecimal sum);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ExpenseRollup r SET r.minAmount = :min, r.maxAmount = :max WHERE r.bucket = :bucket")
+    int setBounds(String bucket, BigDecimal min, BigDecimal max);
+}
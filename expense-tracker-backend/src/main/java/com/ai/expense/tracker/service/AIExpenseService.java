@@ -1,6 +1,11 @@
 package com.ai.expense.tracker.service;
 
+import com.ai.expense.tracker.dto.SpendingSummary;
 import com.ai.expense.tracker.model.Expense;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
@@ -10,8 +15,15 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,22 +31,171 @@ public class AIExpenseService {
 
     private static final Logger logger = LoggerFactory.getLogger(AIExpenseService.class);
 
+    // Keeps batched prompts well inside the model's context window
+    private static final int BATCH_PROMPT_SIZE = 50;
+
+    private static final String OUTCOME_AI = "ai";
+    private static final String OUTCOME_FALLBACK = "fallback";
+    private static final String OUTCOME_ERROR = "error";
+    private static final String OUTCOME_REJECTED = "rejected";
+    private static final String OUTCOME_TIMEOUT = "timeout";
+    private static final String OUTCOME_SHORT_CIRCUIT = "short_circuit";
+    private static final String SOURCE_AI = "ai";
+    private static final String SOURCE_CACHE = "cache";
+    private static final String SOURCE_FALLBACK = "fallback";
+    private static final String SOURCE_SIMILARITY = "similarity";
+
+    // Category names as they may appear in model output, in the order the old contains() chain checked them
+    private static final KeywordMatcher CATEGORY_NAMES = KeywordMatcher.build(List.of(
+            new KeywordMatcher.Keyword("FOOD", "FOOD", 0),
+            new KeywordMatcher.Keyword("TRANSPORT", "TRANSPORT", 1),
+            new KeywordMatcher.Keyword("ENTERTAINMENT", "ENTERTAINMENT", 2),
+            new KeywordMatcher.Keyword("SHOPPING", "SHOPPING", 3),
+            new KeywordMatcher.Keyword("BILLS", "BILLS", 4),
+            new KeywordMatcher.Keyword("HEALTH", "HEALTH", 5)
+    ), KeywordCategorizer.DEFAULT_CATEGORY);
+
     private final ChatClient chatClient;
 
     private final boolean aiEnabled;
 
-    public AIExpenseService(ObjectProvider<ChatClient> chatClientProvider, @Value("${app.ai.enabled:true}") boolean aiEnabled) {
+    private final CategorizationCache categorizationCache;
+
+    private final CategorizationBatcher categorizationBatcher;
+
+    private final KeywordCategorizer keywordCategorizer;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ModelCallGuard modelCallGuard;
+
+    private final SimilarityCategorizer similarityCategorizer;
+
+    public AIExpenseService(ObjectProvider<ChatClient> chatClientProvider, @Value("${app.ai.enabled:true}") boolean aiEnabled,
+                            CategorizationCache categorizationCache, KeywordCategorizer keywordCategorizer,
+                            MeterRegistry meterRegistry,
+                            ModelCallGuard modelCallGuard, SimilarityCategorizer similarityCategorizer,
+                            @Value("${app.ai.categorization.batch.enabled:true}") boolean batchEnabled,
+                            @Value("${app.ai.categorization.batch.window-ms:15}") long batchWindowMillis,
+                            @Value("${app.ai.categorization.batch.max-size:20}") int batchMaxSize) {
         this.chatClient = chatClientProvider.getIfAvailable();
+        this.categorizationCache = categorizationCache;
+        this.keywordCategorizer = keywordCategorizer;
+        this.meterRegistry = meterRegistry;
+        this.modelCallGuard = modelCallGuard;
+        this.similarityCategorizer = similarityCategorizer;
         // disable AI if no ChatClient bean available
         this.aiEnabled = aiEnabled && this.chatClient != null;
+        this.categorizationBatcher = this.aiEnabled && batchEnabled
+                ? new CategorizationBatcher(this::categorizeCoalesced, batchWindowMillis, batchMaxSize)
+                : null;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (categorizationBatcher != null) {
+            categorizationBatcher.shutdown();
+        }
     }
 
     public String categorizeExpense(String description) {
         if (!aiEnabled) {
-            logger.info("AI categorization disabled, using rule-based fallback");
+            logger.debug("AI categorization disabled, using rule-based fallback");
+            countCategorizations(SOURCE_FALLBACK, 1);
             return fallbackCategorization(description);
         }
 
+        String cached = categorizationCache.get(description);
+        if (cached != null) {
+            logger.debug("Categorization cache hit for '{}': {}", description, cached);
+            countCategorizations(SOURCE_CACHE, 1);
+            return cached;
+        }
+
+        // Near-duplicates of descriptions already categorized are answered locally
+        String similar = similarityCategorizer.answer(description);
+        if (similar != null) {
+            countCategorizations(SOURCE_SIMILARITY, 1);
+            return similar;
+        }
+
+        if (categorizationBatcher != null) {
+            try {
+                // The caller's budget also covers the batching window; a late batch still fills the cache
+                return categorizationBatcher.submit(description)
+                        .get(modelCallGuard.budget(ModelCallGuard.CATEGORIZE).toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                logger.debug("Categorization of '{}' exceeded its budget, using fallback", description);
+                countCategorizations(SOURCE_FALLBACK, 1);
+                return fallbackCategorization(description);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                countCategorizations(SOURCE_FALLBACK, 1);
+                return fallbackCategorization(description);
+            } catch (ExecutionException e) {
+                logger.warn("Batched AI categorization failed for '{}', using fallback", description, e.getCause());
+                countCategorizations(SOURCE_FALLBACK, 1);
+                return fallbackCategorization(description);
+            }
+        }
+        return categorizeSingle(description);
+    }
+
+    // A window that only caught one caller keeps the original single-description prompt
+    private List<String> categorizeCoalesced(List<String> descriptions) {
+        if (descriptions.size() == 1) {
+            return List.of(categorizeSingle(descriptions.get(0)));
+        }
+        return categorizeChunk(descriptions);
+    }
+
+    private String categorizeSingle(String description) {
+        try {
+            String category = categorizeWithModel(description);
+            if (category != null) {
+                countCategorizations(SOURCE_AI, 1);
+                return category;
+            }
+        } catch (Exception e) {
+            logFailure("AI categorization for '" + description + "'", e);
+        }
+        countCategorizations(SOURCE_FALLBACK, 1);
+        return fallbackCategorization(description);
+    }
+
+    /**
+     * Categorizes one description for a caller that retries on its own (the async worker): cache,
+     * similar descriptions, then the model, which is awaited directly rather than through the batcher.
+     * Unlike {@link #categorizeExpense} a model failure is thrown instead of answered by the rules,
+     * which are used only when AI is disabled.
+     */
+    public String categorizeOrThrow(String description) throws Exception {
+        if (!aiEnabled) {
+            countCategorizations(SOURCE_FALLBACK, 1);
+            return fallbackCategorization(description);
+        }
+        String cached = categorizationCache.get(description);
+        if (cached != null) {
+            countCategorizations(SOURCE_CACHE, 1);
+            return cached;
+        }
+        String similar = similarityCategorizer.answer(description);
+        if (similar != null) {
+            countCategorizations(SOURCE_SIMILARITY, 1);
+            return similar;
+        }
+        String category = categorizeWithModel(description);
+        if (category == null) {
+            throw new IllegalStateException("Model returned no category for '" + description + "'");
+        }
+        countCategorizations(SOURCE_AI, 1);
+        return category;
+    }
+
+    // One model round trip; null when the model answered with empty content
+    private String categorizeWithModel(String description) throws Exception {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = OUTCOME_ERROR;
         try {
             String prompt = """
                     Categorize this expense description into exactly one of these categories: 
@@ -48,33 +209,147 @@ public class AIExpenseService {
             PromptTemplate promptTemplate = new PromptTemplate(prompt);
             Map<String, Object> params = Map.of("description", description);
 
-            String category = chatClient.prompt()
-                    .user(promptTemplate.render(params))
-                    .call()
-                    .content();
+            String category = callModel(ModelCallGuard.CATEGORIZE, promptTemplate.render(params), late -> {
+                if (late != null && !late.isBlank()) {
+                    remember(description, cleanCategoryResponse(late));
+                }
+            });
 
+            // An empty answer is no answer: the caller falls back and nothing is cached
+            if (category == null || category.isBlank()) {
+                outcome = OUTCOME_FALLBACK;
+                return null;
+            }
             String cleanedCategory = cleanCategoryResponse(category);
-            logger.info("AI categorized '{}' as: {}", description, cleanedCategory);
+            outcome = OUTCOME_AI;
+            logger.debug("AI categorized '{}' as: {}", description, cleanedCategory);
+            // Only model answers are cached; rule-based fallbacks are cheap and may be wrong
+            remember(description, cleanedCategory);
             return cleanedCategory;
+        } catch (Exception e) {
+            outcome = errorOutcome(e);
+            throw e;
+        } finally {
+            sample.stop(modelCallTimer(ModelCallGuard.CATEGORIZE, outcome));
+        }
+    }
+
+    /**
+     * Categorizes many descriptions with one model round trip per chunk. Results are returned
+     * in input order; any item the model response does not cover falls back to the rules.
+     */
+    public List<String> categorizeExpenses(List<String> descriptions) {
+        List<String> categories = new ArrayList<>(descriptions.size());
+        if (!aiEnabled) {
+            for (String description : descriptions) {
+                categories.add(fallbackCategorization(description));
+            }
+            countCategorizations(SOURCE_FALLBACK, descriptions.size());
+            return categories;
+        }
+
+        // Resolve cache hits and confident similar descriptions first and send each distinct
+        // remaining description to the model only once
+        Map<String, String> resolved = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        int cacheHits = 0;
+        int similarHits = 0;
+        for (String description : descriptions) {
+            if (resolved.containsKey(description)) {
+                continue;
+            }
+            String category = categorizationCache.get(description);
+            if (category != null) {
+                cacheHits++;
+            } else {
+                category = similarityCategorizer.answer(description);
+                if (category != null) {
+                    similarHits++;
+                } else {
+                    misses.add(description);
+                }
+            }
+            resolved.put(description, category);
+        }
+        countCategorizations(SOURCE_CACHE, cacheHits);
+        countCategorizations(SOURCE_SIMILARITY, similarHits);
 
+        for (int start = 0; start < misses.size(); start += BATCH_PROMPT_SIZE) {
+            List<String> chunk = misses.subList(start, Math.min(start + BATCH_PROMPT_SIZE, misses.size()));
+            List<String> chunkCategories = categorizeChunk(chunk);
+            for (int i = 0; i < chunk.size(); i++) {
+                resolved.put(chunk.get(i), chunkCategories.get(i));
+            }
+        }
+
+        for (String description : descriptions) {
+            categories.add(resolved.get(description));
+        }
+        return categories;
+    }
+
+    private List<String> categorizeChunk(List<String> descriptions) {
+        String[] parsed = new String[descriptions.size()];
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = OUTCOME_ERROR;
+        try {
+            StringBuilder numbered = new StringBuilder();
+            for (int i = 0; i < descriptions.size(); i++) {
+                numbered.append(i + 1).append(". ").append(descriptions.get(i)).append('\n');
+            }
+
+            String prompt = """
+                    Categorize each numbered expense description into exactly one of these categories:
+                    FOOD, TRANSPORT, ENTERTAINMENT, SHOPPING, BILLS, HEALTH, OTHER.
+
+                    {descriptions}
+                    Respond with one line per description in the form "<number>: <CATEGORY>". No explanations.
+                    """;
+
+            PromptTemplate promptTemplate = new PromptTemplate(prompt);
+            String response = callModel(ModelCallGuard.CATEGORIZE_BATCH,
+                    promptTemplate.render(Map.of("descriptions", numbered.toString())),
+                    late -> cacheParsed(descriptions, parseNumberedCategories(late, descriptions.size())));
+            parsed = parseNumberedCategories(response, descriptions.size());
+            outcome = OUTCOME_AI;
         } catch (Exception e) {
-            logger.warn("AI categorization failed for '{}', using fallback", description, e);
-            return fallbackCategorization(description);
+            outcome = errorOutcome(e);
+            logFailure("AI batch categorization of " + descriptions.size() + " descriptions", e);
+        }
+
+        cacheParsed(descriptions, parsed);
+        List<String> categories = new ArrayList<>(descriptions.size());
+        int fallbacks = 0;
+        for (int i = 0; i < parsed.length; i++) {
+            if (parsed[i] != null) {
+                categories.add(parsed[i]);
+            } else {
+                categories.add(fallbackCategorization(descriptions.get(i)));
+                fallbacks++;
+            }
+        }
+        if (fallbacks > 0 && OUTCOME_AI.equals(outcome)) {
+            outcome = OUTCOME_FALLBACK;
         }
+        sample.stop(modelCallTimer(ModelCallGuard.CATEGORIZE_BATCH, outcome));
+        countCategorizations(SOURCE_AI, parsed.length - fallbacks);
+        countCategorizations(SOURCE_FALLBACK, fallbacks);
+        return categories;
     }
 
-    public String generateSpendingInsights(List<Expense> expenses) {
-        if (!aiEnabled || expenses.isEmpty()) {
-            return generateFallbackInsights(expenses);
+    /**
+     * Generates insights from pre-aggregated totals plus a small sample of recent expenses, so the
+     * cost does not depend on how many expenses exist.
+     */
+    public String generateSpendingInsights(SpendingSummary summary, List<Expense> recentExpenses) {
+        if (!aiEnabled || summary.getTotalCount() == 0) {
+            return generateFallbackInsights(summary);
         }
 
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
-            String expenseSummary = buildExpenseSummary(expenses);
-            double total = expenses.stream()
-                    .map(Expense::getAmount)
-                    .filter(a -> a != null)
-                    .mapToDouble(BigDecimal::doubleValue)
-                    .sum();
+            String expenseSummary = buildExpenseSummary(recentExpenses);
+            double total = summary.getTotalAmount().doubleValue();
 
             String prompt = """
                     Analyze these expenses and provide 2-3 concise, actionable insights about spending patterns.
@@ -100,26 +375,29 @@ public class AIExpenseService {
 
             PromptTemplate promptTemplate = new PromptTemplate(prompt);
             Map<String, Object> params = Map.of(
-                    "count", expenses.size(),
+                    "count", summary.getTotalCount(),
                     "total", String.format("%.2f", total),
                     "expenses", expenseSummary
             );
 
-            String insights = chatClient.prompt()
-                    .user(promptTemplate.render(params))
-                    .call()
-                    .content();
+            String insights = callModel(ModelCallGuard.INSIGHTS, promptTemplate.render(params), null);
 
-            logger.info("Generated AI insights for {} expenses", expenses.size());
+            if (insights == null || insights.isBlank()) {
+                sample.stop(modelCallTimer(ModelCallGuard.INSIGHTS, OUTCOME_FALLBACK));
+                return generateFallbackInsights(summary);
+            }
+            sample.stop(modelCallTimer(ModelCallGuard.INSIGHTS, OUTCOME_AI));
+            logger.info("Generated AI insights for {} expenses", summary.getTotalCount());
             return insights.trim();
 
         } catch (Exception e) {
-            logger.error("AI insights generation failed", e);
-            return generateFallbackInsights(expenses);
+            sample.stop(modelCallTimer(ModelCallGuard.INSIGHTS, errorOutcome(e)));
+            logFailure("AI insights generation", e);
+            return generateFallbackInsights(summary);
         }
     }
 
-    private String buildExpenseSummary(List<Expense> expenses) {
+    String buildExpenseSummary(List<Expense> expenses) {
         return expenses.stream()
                 .limit(15) // Limit to prevent token overflow
                 .map(expense -> String.format("- %s: $%.2f (%s)",
@@ -129,49 +407,27 @@ public class AIExpenseService {
                 .collect(Collectors.joining("\n"));
     }
 
-    private String fallbackCategorization(String description) {
-        String lowerDesc = description.toLowerCase();
-
-        if (lowerDesc.contains("food") || lowerDesc.contains("grocery") || lowerDesc.contains("restaurant")) {
-            return "FOOD";
-        } else if (lowerDesc.contains("bus") || lowerDesc.contains("train") || lowerDesc.contains("uber") ||
-                lowerDesc.contains("taxi") || lowerDesc.contains("gas") || lowerDesc.contains("fuel")) {
-            return "TRANSPORT";
-        } else if (lowerDesc.contains("movie") || lowerDesc.contains("netflix") || lowerDesc.contains("game") ||
-                lowerDesc.contains("concert") || lowerDesc.contains("entertainment")) {
-            return "ENTERTAINMENT";
-        } else if (lowerDesc.contains("bill") || lowerDesc.contains("electric") || lowerDesc.contains("water") ||
-                lowerDesc.contains("rent") || lowerDesc.contains("mortgage")) {
-            return "BILLS";
-        } else if (lowerDesc.contains("medical") || lowerDesc.contains("doctor") || lowerDesc.contains("hospital") ||
-                lowerDesc.contains("pharmacy")) {
-            return "HEALTH";
-        } else if (lowerDesc.contains("shop") || lowerDesc.contains("store") || lowerDesc.contains("mall") ||
-                lowerDesc.contains("amazon")) {
-            return "SHOPPING";
-        } else {
-            return "OTHER";
-        }
+    String fallbackCategorization(String description) {
+        return keywordCategorizer.categorize(description);
     }
 
-    private String generateFallbackInsights(List<Expense> expenses) {
-        if (expenses.isEmpty()) {
+    String generateFallbackInsights(SpendingSummary summary) {
+        if (summary.getTotalCount() == 0) {
             return "No expenses to analyze. Start adding expenses to get insights!";
         }
 
-        double total = expenses.stream()
-                .map(Expense::getAmount)
-                .filter(a -> a != null)
-                .mapToDouble(BigDecimal::doubleValue)
-                .sum();
-        Map<String, Double> categoryTotals = expenses.stream()
-                .collect(Collectors.groupingBy(Expense::getCategory,
-                        Collectors.summingDouble(e -> e.getAmount() != null ? e.getAmount().doubleValue() : 0.0)));
-
-        String topCategory = categoryTotals.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse("OTHER");
+        double total = summary.getTotalAmount().doubleValue();
+        String topCategory = "OTHER";
+        BigDecimal topTotal = null;
+        for (Map.Entry<String, SpendingSummary.BucketStats> entry : summary.getByCategory().entrySet()) {
+            if (CategorizationWorker.PENDING.equals(entry.getKey())) {
+                continue;
+            }
+            if (topTotal == null || entry.getValue().getTotal().compareTo(topTotal) > 0) {
+                topTotal = entry.getValue().getTotal();
+                topCategory = entry.getKey();
+            }
+        }
 
         return String.format("""
                 🎯 **Spending Patterns:**
@@ -182,22 +438,97 @@ public class AIExpenseService {
                 
                 📈 **Optimization Tips:**
                 Review recurring expenses and identify areas where you can reduce costs. Small savings add up over time!
-                """, total, expenses.size(), topCategory, topCategory);
+                """, total, summary.getTotalCount(), topCategory, topCategory);
     }
 
-    private String cleanCategoryResponse(String category) {
-        if (category == null) return "OTHER";
+    /**
+     * Sends one prompt to the model through the {@link ModelCallGuard}: within the operation's
+     * latency budget, behind the circuit breaker and bulkhead. {@code onLateResult} receives the
+     * answer if it arrives after the caller has already fallen back.
+     */
+    private String callModel(String operation, String userPrompt, Consumer<String> onLateResult) throws Exception {
+        return modelCallGuard.call(operation, () -> chatClient.prompt()
+                .user(userPrompt)
+                .call()
+                .content(), onLateResult);
+    }
 
-        String cleaned = category.trim().toUpperCase();
+    // Parses "<number>: <CATEGORY>" lines; entries the model did not answer stay null
+    private String[] parseNumberedCategories(String response, int count) {
+        String[] parsed = new String[count];
+        if (response == null) {
+            return parsed;
+        }
+        for (String line : response.split("\\R")) {
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                continue;
+            }
+            try {
+                int index = Integer.parseInt(line.substring(0, colon).replaceAll("[^0-9]", "")) - 1;
+                if (index >= 0 && index < count) {
+                    parsed[index] = cleanCategoryResponse(line.substring(colon + 1));
+                }
+            } catch (NumberFormatException ignored) {
+                // Skip lines the model did not number; those items fall back
+            }
+        }
+        return parsed;
+    }
+
+    private void cacheParsed(List<String> descriptions, String[] parsed) {
+        for (int i = 0; i < parsed.length; i++) {
+            if (parsed[i] != null) {
+                remember(descriptions.get(i), parsed[i]);
+            }
+        }
+    }
+
+    private void remember(String description, String category) {
+        categorizationCache.put(description, category);
+        similarityCategorizer.learn(description, category);
+    }
+
+    private static String errorOutcome(Exception e) {
+        if (e instanceof TimeoutException) {
+            return OUTCOME_TIMEOUT;
+        }
+        if (e instanceof ModelCallGuard.CircuitOpenException) {
+            return OUTCOME_SHORT_CIRCUIT;
+        }
+        return e instanceof RejectedExecutionException ? OUTCOME_REJECTED : OUTCOME_ERROR;
+    }
+
+    // Budget misses and an open circuit are expected under load; only real failures get a stack trace
+    private static void logFailure(String what, Exception e) {
+        if (e instanceof TimeoutException || e instanceof RejectedExecutionException) {
+            logger.debug("{} skipped the model: {}", what, e.getMessage());
+        } else {
+            logger.warn("{} failed, using fallback", what, e);
+        }
+    }
+
+    // Model round trips by operation; outcome is ai (answer used), fallback (answer unusable), timeout,
+    // short_circuit, rejected or error
+    private Timer modelCallTimer(String operation, String outcome) {
+        return Timer.builder("expense.ai.calls")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private void countCategorizations(String source, int count) {
+        if (count > 0) {
+            Counter.builder("expense.categorizations")
+                    .tag("source", source)
+                    .register(meterRegistry)
+                    .increment(count);
+        }
+    }
 
+    String cleanCategoryResponse(String category) {
         // Extract category from potential AI responses
-        if (cleaned.contains("FOOD")) return "FOOD";
-        if (cleaned.contains("TRANSPORT")) return "TRANSPORT";
-        if (cleaned.contains("ENTERTAINMENT")) return "ENTERTAINMENT";
-        if (cleaned.contains("SHOPPING")) return "SHOPPING";
-        if (cleaned.contains("BILLS")) return "BILLS";
-        if (cleaned.contains("HEALTH")) return "HEALTH";
-
-        return "OTHER";
+        return CATEGORY_NAMES.match(category);
     }
 }
\ No newline at end of file
@@ -0,0 +1,116 @@
+package com.ai.expense.tracker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent categorization requests. Descriptions arriving within {@code windowMillis}
+ * of the first one (or until {@code maxBatchSize} distinct descriptions are waiting) are sent to
+ * the model together and the per-item answers are handed back to each waiting caller.
+ */
+class CategorizationBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategorizationBatcher.class);
+
+    private final Function<List<String>, List<String>> batchCategorizer;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService timer;
+    private final ExecutorService dispatcher;
+
+    // A j.u.c lock rather than a monitor so contending virtual threads unmount instead of pinning
+    private final ReentrantLock lock = new ReentrantLock();
+    // Identical descriptions within one window share a single slot in the prompt
+    private Map<String, CompletableFuture<String>> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    CategorizationBatcher(Function<List<String>, List<String>> batchCategorizer, long windowMillis, int maxBatchSize) {
+        this.batchCategorizer = batchCategorizer;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "categorization-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatcher = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("categorization-batch-", 0).factory());
+    }
+
+    CompletableFuture<String> submit(String description) {
+        Map<String, CompletableFuture<String>> ready = null;
+        CompletableFuture<String> future;
+        lock.lock();
+        try {
+            future = pending.computeIfAbsent(description, d -> new CompletableFuture<>());
+            if (pending.size() >= maxBatchSize) {
+                ready = takePending();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = timer.schedule(this::flushOnTimer, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (ready != null) {
+            dispatch(ready);
+        }
+        return future;
+    }
+
+    void shutdown() {
+        timer.shutdownNow();
+        dispatcher.shutdown();
+    }
+
+    private void flushOnTimer() {
+        Map<String, CompletableFuture<String>> ready;
+        lock.lock();
+        try {
+            ready = takePending();
+        } finally {
+            lock.unlock();
+        }
+        dispatch(ready);
+    }
+
+    // Caller must hold the lock
+    private Map<String, CompletableFuture<String>> takePending() {
+        Map<String, CompletableFuture<String>> ready = pending;
+        pending = new LinkedHashMap<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return ready;
+    }
+
+    private void dispatch(Map<String, CompletableFuture<String>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        dispatcher.execute(() -> {
+            List<String> descriptions = new ArrayList<>(batch.keySet());
+            try {
+                List<String> categories = batchCategorizer.apply(descriptions);
+                for (int i = 0; i < descriptions.size(); i++) {
+                    batch.get(descriptions.get(i)).complete(categories.get(i));
+                }
+                logger.debug("Categorized batch of {} descriptions in one model call", descriptions.size());
+            } catch (Exception e) {
+                batch.values().forEach(future -> future.completeExceptionally(e));
+            }
+        });
+    }
+}
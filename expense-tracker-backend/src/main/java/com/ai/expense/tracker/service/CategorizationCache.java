@@ -0,0 +1,117 @@
+package com.ai.expense.tracker.service;
+
+import com.ai.expense.tracker.repository.ExpenseRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Size- and TTL-bounded cache of description → category, keyed on a normalized description so
+ * trivially different spellings ("Uber  ride", "uber ride!") share one entry.
+ */
+@Component
+public class CategorizationCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategorizationCache.class);
+
+    private final Cache<String, String> cache;
+    private final ExpenseRepository expenseRepository;
+    private final int prewarmLimit;
+
+    public CategorizationCache(ExpenseRepository expenseRepository, MeterRegistry meterRegistry,
+                               @Value("${app.ai.categorization-cache.max-size:10000}") long maxSize,
+                               @Value("${app.ai.categorization-cache.ttl:24h}") Duration ttl,
+                               @Value("${app.ai.categorization-cache.prewarm-limit:10000}") int prewarmLimit) {
+        this.expenseRepository = expenseRepository;
+        this.prewarmLimit = prewarmLimit;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "categorization");
+    }
+
+    public String get(String description) {
+        return cache.getIfPresent(normalize(description));
+    }
+
+    // PENDING is a placeholder, never an answer worth remembering
+    public void put(String description, String category) {
+        if (category == null || CategorizationWorker.PENDING.equals(category)) {
+            return;
+        }
+        cache.put(normalize(description), category);
+    }
+
+    /**
+     * Seeds the cache from the most recently stored expenses so a fresh instance does not have to
+     * re-ask the model for merchants it has already categorized.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prewarm() {
+        if (prewarmLimit <= 0) {
+            return;
+        }
+        try {
+            List<Object[]> rows = expenseRepository.findRecentCategorizations(Limit.of(prewarmLimit));
+            for (Object[] row : rows) {
+                if (CategorizationWorker.PENDING.equals(row[1])) {
+                    continue;
+                }
+                String key = normalize((String) row[0]);
+                // Rows are newest first; keep the most recent category for each description
+                cache.asMap().putIfAbsent(key, (String) row[1]);
+            }
+            logger.info("Pre-warmed categorization cache with {} entries from {} rows", cache.estimatedSize(), rows.size());
+        } catch (Exception e) {
+            logger.warn("Could not pre-warm categorization cache", e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+
+    static String normalize(String description) {
+        if (description == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(description.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < description.length(); i++) {
+            char c = description.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && !normalized.isEmpty()) {
+                    normalized.append(' ');
+                }
+                normalized.append(Character.toLowerCase(c));
+                pendingSpace = false;
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString();
+    }
+}
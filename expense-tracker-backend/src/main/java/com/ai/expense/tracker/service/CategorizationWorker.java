@@ -0,0 +1,213 @@
+package com.ai.expense.tracker.service;
+
+import com.ai.expense.tracker.model.Expense;
+import com.ai.expense.tracker.repository.ExpenseRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Background categorization for expenses saved with {@link #PENDING}. A bounded queue provides
+ * backpressure: when it is full the row simply stays PENDING and the periodic sweep picks it up
+ * later, which also covers rows left behind by a restart.
+ */
+@Component
+public class CategorizationWorker {
+
+    public static final String PENDING = "PENDING";
+
+    private static final Logger logger = LoggerFactory.getLogger(CategorizationWorker.class);
+
+    private final AIExpenseService aiExpenseService;
+    private final ExpenseRepository expenseRepository;
+    private final SpendingRollupService rollupService;
+    private final TransactionTemplate transactionTemplate;
+    private final DataVersion dataVersion;
+    private final ExpenseColumnStore columnStore;
+    private final ExpenseChangeFeed changeFeed;
+    private final boolean enabled;
+    private final int workers;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    private final int sweepBatchSize;
+
+    private final BlockingQueue<Task> queue;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    public CategorizationWorker(AIExpenseService aiExpenseService, ExpenseRepository expenseRepository,
+                                SpendingRollupService rollupService, TransactionTemplate transactionTemplate,
+                                DataVersion dataVersion, ExpenseColumnStore columnStore, ExpenseChangeFeed changeFeed,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.ai.categorization.mode:sync}") String mode,
+                                @Value("${app.ai.categorization.workers:8}") int workers,
+                                @Value("${app.ai.categorization.queue-capacity:10000}") int queueCapacity,
+                                @Value("${app.ai.categorization.max-attempts:3}") int maxAttempts,
+                                @Value("${app.ai.categorization.retry-backoff-ms:500}") long retryBackoffMillis,
+                                @Value("${app.ai.categorization.sweep-batch-size:500}") int sweepBatchSize) {
+        this.aiExpenseService = aiExpenseService;
+        this.expenseRepository = expenseRepository;
+        this.rollupService = rollupService;
+        this.transactionTemplate = transactionTemplate;
+        this.dataVersion = dataVersion;
+        this.columnStore = columnStore;
+        this.changeFeed = changeFeed;
+        this.enabled = "async".equalsIgnoreCase(mode);
+        this.workers = workers;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.sweepBatchSize = sweepBatchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("expense.categorization.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        // Workers spend nearly all their time blocked on the model, so virtual threads are a good fit
+        for (int i = 0; i < workers; i++) {
+            threads.add(Thread.ofVirtual().name("categorizer-" + i).start(this::runLoop));
+        }
+        logger.info("Started {} async categorization workers", workers);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        threads.forEach(Thread::interrupt);
+    }
+
+    /**
+     * Queues an expense for categorization. Returns false when the queue is full; the row then
+     * remains PENDING until the next sweep.
+     */
+    public boolean submit(Long expenseId, String description) {
+        if (!enabled || !inFlight.add(expenseId)) {
+            return false;
+        }
+        if (!queue.offer(new Task(expenseId, description))) {
+            inFlight.remove(expenseId);
+            logger.warn("Categorization queue full, expense {} will be picked up by the next sweep", expenseId);
+            return false;
+        }
+        return true;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.ai.categorization.sweep-interval-ms:30000}")
+    void sweepPending() {
+        if (!enabled) {
+            return;
+        }
+        int capacity = Math.min(queue.remainingCapacity(), sweepBatchSize);
+        if (capacity == 0) {
+            return;
+        }
+        List<Object[]> pending = expenseRepository.findIdAndDescriptionByCategory(PENDING, Limit.of(capacity));
+        int queued = 0;
+        for (Object[] row : pending) {
+            if (submit((Long) row[0], (String) row[1])) {
+                queued++;
+            }
+        }
+        if (queued > 0) {
+            logger.info("Re-queued {} pending expenses for categorization", queued);
+        }
+    }
+
+    private void runLoop() {
+        while (running) {
+            Task task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                process(task);
+            } finally {
+                inFlight.remove(task.expenseId());
+            }
+        }
+    }
+
+    private void process(Task task) {
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                // Model failures surface here, so they are retried instead of saving the rules' guess
+                String category = aiExpenseService.categorizeOrThrow(task.description());
+                Boolean updated = transactionTemplate.execute(status -> applyCategory(task.expenseId(), category));
+                if (!Boolean.TRUE.equals(updated)) {
+                    logger.debug("Expense {} was deleted or already categorized", task.expenseId());
+                }
+                return;
+            } catch (Exception e) {
+                logger.warn("Categorization attempt {}/{} failed for expense {}", attempt, maxAttempts, task.expenseId(), e);
+                if (attempt < maxAttempts && !sleep(retryBackoffMillis << (attempt - 1))) {
+                    return;
+                }
+            }
+        }
+        logger.error("Giving up on expense {} after {} attempts; it stays PENDING until the next sweep",
+                task.expenseId(), maxAttempts);
+    }
+
+    private boolean applyCategory(Long expenseId, String category) {
+        if (category == null || PENDING.equals(category)) {
+            throw new IllegalStateException("No category resolved for expense " + expenseId);
+        }
+        Expense expense = expenseRepository.findById(expenseId).orElse(null);
+        if (expense == null || !PENDING.equals(expense.getCategory())) {
+            return false;
+        }
+        if (expenseRepository.updatePendingCategory(expenseId, expense.getDate(), category, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        rollupService.recordRecategorize(expense.getDate(), PENDING, category, expense.getAmount());
+        columnStore.recordRecategorize(expenseId, category);
+        dataVersion.bump();
+        changeFeed.publishCategorized(expenseId, category);
+        return true;
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record Task(Long expenseId, String description) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.ai.expense.tracker.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps concurrent use of one downstream resource (the model, the database). With virtual threads
+ * the request count is no longer bounded by a thread pool, so this is what keeps a burst from
+ * turning into thousands of simultaneous calls. Waiting callers park on a fair semaphore, which
+ * does not pin their carrier thread.
+ */
+public class ConcurrencyLimiter implements MeterBinder {
+
+    private final String name;
+    private final int limit;
+    private final long acquireTimeoutNanos;
+    private final Semaphore permits;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public ConcurrencyLimiter(String name, int limit, Duration acquireTimeout) {
+        this.name = name;
+        this.limit = limit;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.permits = new Semaphore(limit, true);
+    }
+
+    /**
+     * Waits up to the acquire timeout for a permit. Returns false on timeout or interrupt; the
+     * caller must {@link #release()} only after a successful acquire.
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(acquireTimeoutNanos);
+    }
+
+    /**
+     * Like {@link #tryAcquire()} but never waits longer than {@code maxWait}, e.g. the caller's
+     * remaining latency budget.
+     */
+    public boolean tryAcquire(Duration maxWait) {
+        return tryAcquire(Math.min(acquireTimeoutNanos, maxWait.toNanos()));
+    }
+
+    private boolean tryAcquire(long timeoutNanos) {
+        try {
+            if (permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getInUse() {
+        return limit - permits.availablePermits();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("expense.downstream.in.use", this, ConcurrencyLimiter::getInUse)
+                .tag("downstream", name).register(registry);
+        Gauge.builder("expense.downstream.limit", () -> limit)
+                .tag("downstream", name).register(registry);
+        Gauge.builder("expense.downstream.waiting", permits, Semaphore::getQueueLength)
+                .tag("downstream", name).register(registry);
+        FunctionCounter.builder("expense.downstream.rejected", rejected, AtomicLong::get)
+                .tag("downstream", name).register(registry);
+    }
+}
@@ -0,0 +1,97 @@
+package com.ai.expense.tracker.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Monotonically increasing version of the expense data, shared by every instance through the
+ * {@code data_versions} row. Every write path bumps it; derived results (cached insights, ETags,
+ * ...) are valid only for the version they were computed from. Inside a transaction the row is
+ * updated just before commit, so the new version becomes visible together with the data and the
+ * row lock is held only for the commit itself.
+ */
+@Component
+public class DataVersion {
+
+    private static final String NAME = "expenses";
+
+    // Lazy: the replica-routing data source depends on this bean
+    private final ObjectProvider<JdbcTemplate> jdbcTemplate;
+
+    public DataVersion(ObjectProvider<JdbcTemplate> jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public long current() {
+        return read().version();
+    }
+
+    /**
+     * Strong entity tag for responses derived from the current data. After a replica read in this
+     * request it names the version that replica is known to include instead.
+     */
+    public String etag() {
+        return etag(read());
+    }
+
+    public String etag(Snapshot snapshot) {
+        return "\"" + Math.min(snapshot.version(), ReadContext.servedVersion()) + "\"";
+    }
+
+    public long lastModified() {
+        return read().lastModified();
+    }
+
+    /**
+     * Version and modification time from a single read, for callers that need both.
+     */
+    public Snapshot read() {
+        List<Snapshot> rows = jdbcTemplate.getObject().query(
+                "SELECT version, updated_at FROM data_versions WHERE name = ?",
+                (rs, i) -> new Snapshot(rs.getLong(1), rs.getTimestamp(2).getTime()), NAME);
+        if (rows.isEmpty()) {
+            create();
+            return new Snapshot(0, System.currentTimeMillis());
+        }
+        return rows.get(0);
+    }
+
+    public void bump() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    increment();
+                }
+            });
+        } else {
+            increment();
+        }
+    }
+
+    private void increment() {
+        int updated = jdbcTemplate.getObject().update(
+                "UPDATE data_versions SET version = version + 1, updated_at = ? WHERE name = ?",
+                Timestamp.valueOf(LocalDateTime.now()), NAME);
+        if (updated == 0) {
+            create();
+            increment();
+        }
+    }
+
+    // schema.sql seeds the row; this covers a database set up without it
+    private void create() {
+        jdbcTemplate.getObject().update("INSERT INTO data_versions (name, version, updated_at) VALUES (?, 0, ?) "
+                + "ON CONFLICT DO NOTHING", NAME, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    public record Snapshot(long version, long lastModified) {
+    }
+}
@@ -0,0 +1,271 @@
+package com.ai.expense.tracker.service;
+
+import com.ai.expense.tracker.dto.ExpenseResponse;
+import com.ai.expense.tracker.dto.SpendingSummary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server-sent change feed for expenses. Writes publish small events after their transaction
+ * commits; each subscriber has a bounded queue drained by its own virtual thread, so a slow client
+ * never holds up writers or other subscribers. A subscriber whose queue overflows is disconnected
+ * and resumes with {@code Last-Event-ID} from the replay buffer of recent events. Clients that fall
+ * further behind than the buffer get a {@value #RESYNC} event and should reload.
+ */
+@Component
+public class ExpenseChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseChangeFeed.class);
+
+    public static final String CREATED = "expense.created";
+    public static final String DELETED = "expense.deleted";
+    public static final String CATEGORIZED = "expense.categorized";
+    public static final String IMPORTED = "expenses.imported";
+    public static final String STATS_UPDATED = "stats.updated";
+    public static final String RESYNC = "resync";
+
+    // Event ids are "<epoch>-<sequence>"; a different epoch means the client last saw another process
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final SpendingRollupService rollupService;
+    private final DataVersion dataVersion;
+    private final int replaySize;
+    private final int subscriberBuffer;
+    private final int maxSubscribers;
+    private final Duration emitterTimeout;
+    private final Counter droppedSubscribers;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Event> replay = new ArrayDeque<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean statsPending = new AtomicBoolean();
+    private long sequence;
+
+    public ExpenseChangeFeed(SpendingRollupService rollupService, DataVersion dataVersion, MeterRegistry meterRegistry,
+                             @Value("${app.events.replay-size:1000}") int replaySize,
+                             @Value("${app.events.subscriber-buffer:256}") int subscriberBuffer,
+                             @Value("${app.events.max-subscribers:5000}") int maxSubscribers,
+                             @Value("${app.events.emitter-timeout:30m}") Duration emitterTimeout) {
+        this.rollupService = rollupService;
+        this.dataVersion = dataVersion;
+        this.replaySize = replaySize;
+        this.subscriberBuffer = subscriberBuffer;
+        this.maxSubscribers = maxSubscribers;
+        this.emitterTimeout = emitterTimeout;
+        this.droppedSubscribers = Counter.builder("expense.events.dropped.subscribers").register(meterRegistry);
+        Gauge.builder("expense.events.subscribers", subscribers, Set::size).register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream, first replaying what the client missed since {@code lastEventId} (if any).
+     *
+     * @throws RejectedExecutionException when the subscriber limit is reached
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new RejectedExecutionException("Too many change feed subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(subscriberBuffer + replaySize + 1));
+        lock.lock();
+        try {
+            // Replay and registration happen under the publish lock, so nothing falls in between
+            Long after = resumePoint(lastEventId);
+            if (lastEventId != null && (after == null || isOlderThanReplay(after))) {
+                subscriber.queue.add(new Event(sequence, RESYNC, Map.of("reason", "history no longer available")));
+            } else if (after != null) {
+                replay.stream().filter(event -> event.sequence() > after).forEach(subscriber.queue::add);
+            }
+            subscribers.add(subscriber);
+        } finally {
+            lock.unlock();
+        }
+        emitter.onCompletion(() -> close(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(e -> close(subscriber));
+        subscriber.thread = Thread.ofVirtual().name("change-feed-subscriber").start(() -> drain(subscriber));
+        return emitter;
+    }
+
+    public void publishCreated(ExpenseResponse expense) {
+        AfterCommit.run(() -> {
+            publish(CREATED, expense);
+            scheduleStats();
+        });
+    }
+
+    public void publishDeleted(Long id) {
+        AfterCommit.run(() -> {
+            publish(DELETED, Map.of("id", id));
+            scheduleStats();
+        });
+    }
+
+    public void publishCategorized(Long id, String category) {
+        AfterCommit.run(() -> {
+            publish(CATEGORIZED, Map.of("id", id, "category", category));
+            scheduleStats();
+        });
+    }
+
+    // Bulk imports announce a count rather than one event per row; clients reload the list
+    public void publishImported(int count) {
+        AfterCommit.run(() -> {
+            publish(IMPORTED, Map.of("count", count));
+            scheduleStats();
+        });
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Sends the pending {@value #STATS_UPDATED} event. Runs on a short fixed delay so a burst of
+     * writes costs one rollup read, and none at all while nobody is listening.
+     */
+    @Scheduled(fixedDelayString = "${app.events.stats-interval-ms:250}")
+    void flushStats() {
+        if (!statsPending.getAndSet(false) || subscribers.isEmpty()) {
+            return;
+        }
+        try {
+            SpendingSummary summary = rollupService.getSummary();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("totalCount", summary.getTotalCount());
+            stats.put("totalAmount", summary.getTotalAmount());
+            stats.put("version", dataVersion.current());
+            publish(STATS_UPDATED, stats);
+        } catch (RuntimeException e) {
+            logger.warn("Could not compute totals for the change feed", e);
+        }
+    }
+
+    // Comment lines keep proxies from idling the connection out and surface dead clients
+    @Scheduled(fixedDelayString = "${app.events.heartbeat-ms:15000}")
+    void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.queue.offer(Event.HEARTBEAT);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void publish(String type, Object data) {
+        List<Subscriber> overflowed = new ArrayList<>();
+        lock.lock();
+        try {
+            Event event = new Event(++sequence, type, data);
+            replay.addLast(event);
+            if (replay.size() > replaySize) {
+                replay.removeFirst();
+            }
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.queue.offer(event)) {
+                    overflowed.add(subscriber);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Subscriber subscriber : overflowed) {
+            droppedSubscribers.increment();
+            logger.debug("Change feed subscriber fell behind, disconnecting; it can resume with Last-Event-ID");
+            close(subscriber);
+            subscriber.emitter.complete();
+        }
+    }
+
+    private void scheduleStats() {
+        statsPending.set(true);
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            while (subscribers.contains(subscriber)) {
+                Event event = subscriber.queue.take();
+                if (event == Event.HEARTBEAT) {
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(epoch + "-" + event.sequence())
+                            .name(event.type())
+                            .data(event.data(), MediaType.APPLICATION_JSON));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the emitter already completed
+            close(subscriber);
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        if (subscribers.remove(subscriber) && subscriber.thread != null) {
+            subscriber.thread.interrupt();
+        }
+    }
+
+    // Caller must hold the lock
+    private boolean isOlderThanReplay(long after) {
+        long oldest = replay.isEmpty() ? sequence + 1 : replay.peekFirst().sequence();
+        return after + 1 < oldest;
+    }
+
+    private Long resumePoint(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        int dash = lastEventId.lastIndexOf('-');
+        if (dash < 0 || !epoch.equals(lastEventId.substring(0, dash))) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private record Event(long sequence, String type, Object data) {
+        static final Event HEARTBEAT = new Event(-1, "heartbeat", null);
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final BlockingQueue<Event> queue;
+        volatile Thread thread;
+
+        Subscriber(SseEmitter emitter, BlockingQueue<Event> queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
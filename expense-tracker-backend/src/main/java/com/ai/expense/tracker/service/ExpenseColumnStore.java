@@ -0,0 +1,489 @@
+package com.ai.expense.tracker.service;
+
+import com.ai.expense.tracker.dto.AggregateStats;
+import com.ai.expense.tracker.model.Expense;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory copy of {@code expenses} held as primitive columns: amount in cents, dictionary-encoded
+ * category, epoch day, and description bytes in one shared buffer. A row costs roughly 30 bytes
+ * plus its description, against several hundred for an {@link Expense} entity. Aggregations are
+ * plain loops over the arrays, split across the common pool for large tables.
+ * <p>
+ * The store is loaded once at startup and then kept current by the service write paths after
+ * their transactions commit. Rows are kept ordered by id so deletes can binary-search.
+ */
+@Component
+public class ExpenseColumnStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseColumnStore.class);
+
+    private static final String LOAD_SQL = "SELECT id, amount, date, category, description FROM expenses";
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int SCAN_CHUNK = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int parallelThreshold;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] cents = new long[INITIAL_CAPACITY];
+    private int[] categoryIds = new int[INITIAL_CAPACITY];
+    private int[] epochDays = new int[INITIAL_CAPACITY];
+    private int[] descriptionOffsets = new int[INITIAL_CAPACITY];
+    private short[] descriptionLengths = new short[INITIAL_CAPACITY];
+    private byte[] descriptionBytes = new byte[INITIAL_CAPACITY * 32];
+    private int descriptionBytesUsed;
+    private final BitSet deleted = new BitSet();
+    private int size;
+    private int deletedCount;
+
+    private final List<String> categoryNames = new ArrayList<>();
+    private final Map<String, Integer> categoryIndex = new HashMap<>();
+
+    private volatile boolean ready;
+
+    public ExpenseColumnStore(JdbcTemplate jdbcTemplate,
+                              @Value("${app.analytics.column-store.enabled:true}") boolean enabled,
+                              @Value("${app.analytics.column-store.parallel-threshold:200000}") int parallelThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            jdbcTemplate.query(con -> {
+                var statement = con.prepareStatement(LOAD_SQL + " ORDER BY id");
+                statement.setFetchSize(10_000);
+                return statement;
+            }, rs -> {
+                append(rs);
+            });
+            ready = true;
+        } catch (RuntimeException e) {
+            logger.warn("Could not load the expense column store; snapshot analytics stay unavailable", e);
+            return;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Loaded {} expenses into the column store in {} ms ({} KB of descriptions)",
+                size, (System.nanoTime() - started) / 1_000_000, descriptionBytesUsed / 1024);
+    }
+
+    public long highestId() {
+        lock.readLock().lock();
+        try {
+            return size == 0 ? 0 : ids[size - 1];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the rows with id above {@code afterId} that the store does not have yet, for writes that
+     * bypass the entity path (bulk JDBC imports). Must be called after those rows are committed.
+     */
+    public void catchUp(long afterId) {
+        if (!ready) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            jdbcTemplate.query(LOAD_SQL + " WHERE id > ? ORDER BY id", rs -> {
+                append(rs);
+            }, afterId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void recordCreate(Expense expense) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                insert(expense.getId(), expense.getAmount().movePointRight(2).longValueExact(),
+                        categoryId(expense.getCategory()), (int) expense.getDate().toLocalDate().toEpochDay(),
+                        expense.getDescription());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void recordDelete(Long id) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                int row = indexOf(id);
+                if (row >= 0 && !deleted.get(row)) {
+                    deleted.set(row);
+                    deletedCount++;
+                    if (deletedCount > 1024 && deletedCount > size / 4) {
+                        compact();
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void recordRecategorize(Long id, String category) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                int row = indexOf(id);
+                if (row >= 0) {
+                    categoryIds[row] = categoryId(category);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Drops rows dated before {@code cutoff}, after their partitions were moved to the archive.
+     */
+    public void evictBefore(LocalDate cutoff) {
+        int cutoffDay = (int) cutoff.toEpochDay();
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                for (int row = 0; row < size; row++) {
+                    if (epochDays[row] < cutoffDay && !deleted.get(row)) {
+                        deleted.set(row);
+                        deletedCount++;
+                    }
+                }
+                if (deletedCount > 0) {
+                    compact();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Totals over {@code [from, to)}; either bound may be null, as may {@code category}.
+     */
+    public AggregateStats aggregate(LocalDate from, LocalDate to, String category) {
+        lock.readLock().lock();
+        try {
+            int categoryFilter = categoryFilter(category);
+            if (categoryFilter == -2) {
+                return AggregateStats.ofCents(0, 0, 0, 0);
+            }
+            Partial result = scan(1, row -> categoryFilter < 0 || categoryIds[row] == categoryFilter ? 0 : -1,
+                    dayFrom(from), dayTo(to));
+            return result.toStats(0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, AggregateStats> aggregateByCategory(LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            Partial result = scan(categoryNames.size(), row -> categoryIds[row], dayFrom(from), dayTo(to));
+            Map<String, AggregateStats> byCategory = new LinkedHashMap<>();
+            for (int c = 0; c < categoryNames.size(); c++) {
+                if (result.count[c] > 0) {
+                    byCategory.put(categoryNames.get(c), result.toStats(c));
+                }
+            }
+            return byCategory;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Totals per calendar month (keyed yyyy-MM, ascending) over {@code [from, to)}.
+     */
+    public Map<String, AggregateStats> aggregateByMonth(LocalDate from, LocalDate to, String category) {
+        lock.readLock().lock();
+        try {
+            int categoryFilter = categoryFilter(category);
+            Map<String, AggregateStats> byMonth = new TreeMap<>();
+            if (categoryFilter == -2 || size == 0) {
+                return byMonth;
+            }
+            int dayFrom = Math.max(dayFrom(from), minDay());
+            int dayTo = Math.min(dayTo(to), maxDay() + 1);
+            if (dayFrom >= dayTo) {
+                return byMonth;
+            }
+            // Day -> month bucket lookup table for the queried span, so the loop does no date math
+            YearMonth firstMonth = YearMonth.from(LocalDate.ofEpochDay(dayFrom));
+            int[] monthOfDay = new int[dayTo - dayFrom];
+            for (int d = 0; d < monthOfDay.length; d++) {
+                LocalDate date = LocalDate.ofEpochDay(dayFrom + (long) d);
+                monthOfDay[d] = (date.getYear() - firstMonth.getYear()) * 12 + date.getMonthValue() - firstMonth.getMonthValue();
+            }
+            int months = monthOfDay[monthOfDay.length - 1] + 1;
+            int base = dayFrom;
+            Partial result = scan(months, row -> categoryFilter < 0 || categoryIds[row] == categoryFilter
+                    ? monthOfDay[epochDays[row] - base] : -1, dayFrom, dayTo);
+            for (int m = 0; m < months; m++) {
+                if (result.count[m] > 0) {
+                    byMonth.put(firstMonth.plusMonths(m).toString(), result.toStats(m));
+                }
+            }
+            return byMonth;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("ready", ready);
+            stats.put("rows", size - deletedCount);
+            stats.put("deletedSlots", deletedCount);
+            stats.put("categories", categoryNames.size());
+            stats.put("columnBytes", (long) ids.length * (8 + 8 + 4 + 4 + 4 + 2) + descriptionBytes.length);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller must hold the read lock. groupOf maps a row to its group, or -1 to skip it.
+    private Partial scan(int groups, IntUnaryOperator groupOf, int dayFrom, int dayTo) {
+        int rows = size;
+        if (rows < parallelThreshold) {
+            return scanRange(groups, groupOf, dayFrom, dayTo, 0, rows);
+        }
+        int chunks = (rows + SCAN_CHUNK - 1) / SCAN_CHUNK;
+        return IntStream.range(0, chunks).parallel()
+                .mapToObj(c -> scanRange(groups, groupOf, dayFrom, dayTo, c * SCAN_CHUNK, Math.min(rows, (c + 1) * SCAN_CHUNK)))
+                .reduce(Partial::merge)
+                .orElseGet(() -> new Partial(groups));
+    }
+
+    private Partial scanRange(int groups, IntUnaryOperator groupOf, int dayFrom, int dayTo, int start, int end) {
+        Partial partial = new Partial(groups);
+        for (int row = start; row < end; row++) {
+            int day = epochDays[row];
+            if (day < dayFrom || day >= dayTo || deleted.get(row)) {
+                continue;
+            }
+            int group = groupOf.applyAsInt(row);
+            if (group >= 0) {
+                partial.add(group, cents[row]);
+            }
+        }
+        return partial;
+    }
+
+    // -1 = no filter, -2 = unknown category (matches nothing)
+    private int categoryFilter(String category) {
+        if (category == null) {
+            return -1;
+        }
+        Integer id = categoryIndex.get(category);
+        return id != null ? id : -2;
+    }
+
+    private int minDay() {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < size; row++) {
+            min = Math.min(min, epochDays[row]);
+        }
+        return min;
+    }
+
+    private int maxDay() {
+        int max = Integer.MIN_VALUE;
+        for (int row = 0; row < size; row++) {
+            max = Math.max(max, epochDays[row]);
+        }
+        return max;
+    }
+
+    private static int dayFrom(LocalDate from) {
+        return from != null ? (int) from.toEpochDay() : Integer.MIN_VALUE;
+    }
+
+    private static int dayTo(LocalDate to) {
+        return to != null ? (int) to.toEpochDay() : Integer.MAX_VALUE;
+    }
+
+    // Caller must hold the write lock
+    private void append(ResultSet rs) throws SQLException {
+        insert(rs.getLong("id"), rs.getBigDecimal("amount").movePointRight(2).longValueExact(),
+                categoryId(rs.getString("category")),
+                (int) rs.getTimestamp("date").toLocalDateTime().toLocalDate().toEpochDay(),
+                rs.getString("description"));
+    }
+
+    // Caller must hold the write lock. Ids normally arrive in order; a late commit of a lower id
+    // shifts only the tail after its position.
+    private void insert(long id, long amountCents, int categoryId, int epochDay, String description) {
+        int position = size == 0 || ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+        if (position >= 0 && position < size) {
+            return; // already present
+        }
+        position = position < 0 ? -position - 1 : position;
+        ensureCapacity(size + 1);
+        if (position < size) {
+            int tail = size - position;
+            System.arraycopy(ids, position, ids, position + 1, tail);
+            System.arraycopy(cents, position, cents, position + 1, tail);
+            System.arraycopy(categoryIds, position, categoryIds, position + 1, tail);
+            System.arraycopy(epochDays, position, epochDays, position + 1, tail);
+            System.arraycopy(descriptionOffsets, position, descriptionOffsets, position + 1, tail);
+            System.arraycopy(descriptionLengths, position, descriptionLengths, position + 1, tail);
+            for (int row = size - 1; row >= position; row--) {
+                deleted.set(row + 1, deleted.get(row));
+            }
+            deleted.clear(position);
+        }
+        byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+        if (descriptionBytesUsed + bytes.length > descriptionBytes.length) {
+            descriptionBytes = Arrays.copyOf(descriptionBytes,
+                    Math.max(descriptionBytes.length * 2, descriptionBytesUsed + bytes.length));
+        }
+        System.arraycopy(bytes, 0, descriptionBytes, descriptionBytesUsed, bytes.length);
+
+        ids[position] = id;
+        cents[position] = amountCents;
+        categoryIds[position] = categoryId;
+        epochDays[position] = epochDay;
+        descriptionOffsets[position] = descriptionBytesUsed;
+        descriptionLengths[position] = (short) bytes.length;
+        descriptionBytesUsed += bytes.length;
+        size++;
+    }
+
+    private int indexOf(long id) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        return row >= 0 ? row : -1;
+    }
+
+    private int categoryId(String category) {
+        return categoryIndex.computeIfAbsent(category, c -> {
+            categoryNames.add(c);
+            return categoryNames.size() - 1;
+        });
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(required, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, capacity);
+        cents = Arrays.copyOf(cents, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        descriptionOffsets = Arrays.copyOf(descriptionOffsets, capacity);
+        descriptionLengths = Arrays.copyOf(descriptionLengths, capacity);
+    }
+
+    // Squeezes out deleted rows and their description bytes. Caller must hold the write lock.
+    private void compact() {
+        byte[] bytes = new byte[Math.max(INITIAL_CAPACITY, descriptionBytesUsed)];
+        int bytesUsed = 0;
+        int kept = 0;
+        for (int row = 0; row < size; row++) {
+            if (deleted.get(row)) {
+                continue;
+            }
+            ids[kept] = ids[row];
+            cents[kept] = cents[row];
+            categoryIds[kept] = categoryIds[row];
+            epochDays[kept] = epochDays[row];
+            System.arraycopy(descriptionBytes, descriptionOffsets[row], bytes, bytesUsed, descriptionLengths[row]);
+            descriptionOffsets[kept] = bytesUsed;
+            descriptionLengths[kept] = descriptionLengths[row];
+            bytesUsed += descriptionLengths[row];
+            kept++;
+        }
+        descriptionBytes = bytes;
+        descriptionBytesUsed = bytesUsed;
+        size = kept;
+        deleted.clear();
+        deletedCount = 0;
+    }
+
+    private static final class Partial {
+        final long[] count;
+        final long[] sum;
+        final long[] min;
+        final long[] max;
+
+        Partial(int groups) {
+            count = new long[groups];
+            sum = new long[groups];
+            min = new long[groups];
+            max = new long[groups];
+            Arrays.fill(min, Long.MAX_VALUE);
+            Arrays.fill(max, Long.MIN_VALUE);
+        }
+
+        void add(int group, long value) {
+            count[group]++;
+            sum[group] += value;
+            if (value < min[group]) {
+                min[group] = value;
+            }
+            if (value > max[group]) {
+                max[group] = value;
+            }
+        }
+
+        Partial merge(Partial other) {
+            for (int g = 0; g < count.length; g++) {
+                count[g] += other.count[g];
+                sum[g] += other.sum[g];
+                min[g] = Math.min(min[g], other.min[g]);
+                max[g] = Math.max(max[g], other.max[g]);
+            }
+            return this;
+        }
+
+        AggregateStats toStats(int group) {
+            return AggregateStats.ofCents(count[group], sum[group], min[group], max[group]);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.ai.expense.tracker.service;
+
+import com.ai.expense.tracker.dto.ExpenseResponse;
+import com.ai.expense.tracker.model.Expense;
+import com.ai.expense.tracker.repository.ExpenseRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class ExpenseExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseExportService.class);
+
+    private static final String CSV_HEADER = "id,date,description,amount,category,created_at,updated_at\n";
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format from(String value) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + value);
+        }
+    }
+
+    private final ExpenseRepository expenseRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter jsonRowWriter;
+
+    public ExpenseExportService(ExpenseRepository expenseRepository, EntityManager entityManager,
+                                ObjectMapper objectMapper) {
+        this.expenseRepository = expenseRepository;
+        this.entityManager = entityManager;
+        this.jsonRowWriter = objectMapper.writerFor(ExpenseResponse.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Streams matching expenses to {@code out} row by row. Each entity is detached as soon as it
+     * has been written so the persistence context never grows with the size of the export.
+     */
+    @Transactional(readOnly = true)
+    public long export(Format format, LocalDateTime from, LocalDateTime to, String category, OutputStream out) {
+        logger.info("Exporting expenses as {} (from={}, to={}, category={})", format, from, to, category);
+        long rows = 0;
+        try (Stream<Expense> stream = expenseRepository.streamForExport(from, to, category);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024)) {
+            if (format == Format.CSV) {
+                writer.write(CSV_HEADER);
+            }
+
+            Iterator<Expense> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                Expense expense = iterator.next();
+                if (format == Format.CSV) {
+                    writeCsvRow(writer, expense);
+                } else {
+                    jsonRowWriter.writeValue(writer, ExpenseService.convertToResponse(expense));
+                    writer.write('\n');
+                }
+                entityManager.detach(expense);
+                rows++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Export aborted after " + rows + " rows", e);
+        }
+        logger.info("Exported {} expenses as {}", rows, format);
+        return rows;
+    }
+
+    private void writeCsvRow(Writer writer, Expense expense) throws IOException {
+        writer.write(String.valueOf(expense.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(expense.getDate()));
+        writer.write(',');
+        writer.write(escapeCsv(expense.getDescription()));
+        writer.write(',');
+        writer.write(expense.getAmount() != null ? expense.getAmount().toPlainString() : "");
+        writer.write(',');
+        writer.write(escapeCsv(expense.getCategory()));
+        writer.write(',');
+        writer.write(expense.getCreatedAt() != null ? expense.getCreatedAt().toString() : "");
+        writer.write(',');
+        writer.write(expense.getUpdatedAt() != null ? expense.getUpdatedAt().toString() : "");
+        writer.write('\n');
+    }
+
+    private static String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                needsQuotes = true;
+                break;
+            }
+        }
+        return needsQuotes ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+}
@@ -0,0 +1,303 @@
+package com.ai.expense.tracker.service;
+
+import com.ai.expense.tracker.dto.BulkImportResponse;
+import com.ai.expense.tracker.dto.ExpenseRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk ingestion path for statement imports. Rows are validated individually, categorized in
+ * batched model calls and written with JDBC batch inserts rather than one {@code save()} per row.
+ */
+@Service
+public class ExpenseImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseImportService.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO expenses (description, amount, date, category, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AIExpenseService aiExpenseService;
+    private final SpendingRollupService rollupService;
+    private final DataVersion dataVersion;
+    private final ExpenseColumnStore columnStore;
+    private final ExpenseChangeFeed changeFeed;
+    private final Validator validator;
+    private final int batchSize;
+    private final int maxRows;
+
+    public ExpenseImportService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                AIExpenseService aiExpenseService, SpendingRollupService rollupService,
+                                DataVersion dataVersion, ExpenseColumnStore columnStore,
+                                ExpenseChangeFeed changeFeed, Validator validator,
+                                @Value("${app.import.batch-size:1000}") int batchSize,
+                                @Value("${app.import.max-rows:100000}") int maxRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.aiExpenseService = aiExpenseService;
+        this.rollupService = rollupService;
+        this.dataVersion = dataVersion;
+        this.columnStore = columnStore;
+        this.changeFeed = changeFeed;
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.maxRows = maxRows;
+    }
+
+    public BulkImportResponse importExpenses(List<ExpenseRequest> requests) {
+        return importExpenses(requests, Map.of());
+    }
+
+    private BulkImportResponse importExpenses(List<ExpenseRequest> requests, Map<Integer, String> parseErrors) {
+        if (requests.size() > maxRows) {
+            throw new IllegalArgumentException("Import exceeds the maximum of " + maxRows + " rows");
+        }
+        logger.info("Importing {} expenses", requests.size());
+        BulkImportResponse result = new BulkImportResponse(requests.size());
+
+        List<PendingRow> valid = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            ExpenseRequest request = requests.get(i);
+            String error = parseErrors.containsKey(i + 1) ? parseErrors.get(i + 1) : validate(request);
+            if (error != null) {
+                result.addError(i + 1, error);
+                continue;
+            }
+            try {
+                valid.add(new PendingRow(i + 1, request.getDescription(),
+                        BigDecimal.valueOf(request.getAmount()), parseDate(request.getDate())));
+            } catch (DateTimeParseException e) {
+                result.addError(i + 1, "Invalid date: " + request.getDate());
+            }
+        }
+
+        // Categorize before opening any transaction so model latency never holds a connection
+        List<String> categories = aiExpenseService.categorizeExpenses(
+                valid.stream().map(PendingRow::description).collect(Collectors.toList()));
+
+        // Every id generated by this import is above the store's current high-water mark
+        long highestIdBefore = columnStore.highestId();
+        for (int start = 0; start < valid.size(); start += batchSize) {
+            int end = Math.min(start + batchSize, valid.size());
+            List<PendingRow> chunk = valid.subList(start, end);
+            List<String> chunkCategories = categories.subList(start, end);
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertBatch(chunk, chunkCategories));
+                result.setImported(result.getImported() + chunk.size());
+            } catch (RuntimeException e) {
+                logger.error("Batch insert failed for rows {}-{}", chunk.get(0).row(), chunk.get(chunk.size() - 1).row(), e);
+                for (PendingRow row : chunk) {
+                    result.addError(row.row(), "Insert failed: " + e.getMessage());
+                }
+            }
+        }
+
+        if (result.getImported() > 0) {
+            columnStore.catchUp(highestIdBefore);
+            // The per-batch bumps ran before the column store caught up; bump again so no ETag
+            // issued in between can stand for the complete import
+            dataVersion.bump();
+            changeFeed.publishImported(result.getImported());
+        }
+        logger.info("Imported {} of {} expenses ({} failed)", result.getImported(), result.getReceived(), result.getFailed());
+        return result;
+    }
+
+    /**
+     * Parses a CSV upload whose header names a {@code description} and an {@code amount} column and
+     * optionally a {@code date} column, in any order; other columns are ignored. Quoted fields may
+     * span lines. Malformed records become per-row errors instead of failing the whole upload.
+     */
+    public BulkImportResponse importCsv(InputStream input) throws IOException {
+        List<ExpenseRequest> requests = new ArrayList<>();
+        Map<Integer, String> parseErrors = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String header = readCsvRecord(reader);
+            if (header == null) {
+                return new BulkImportResponse(0);
+            }
+            Map<String, Integer> columns = headerColumns(header);
+            Integer descriptionColumn = columns.get("description");
+            Integer amountColumn = columns.get("amount");
+            Integer dateColumn = columns.get("date");
+            String line;
+            while ((line = readCsvRecord(reader)) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                List<String> fields = splitCsvLine(line);
+                ExpenseRequest request = new ExpenseRequest();
+                request.setDescription(field(fields, descriptionColumn));
+                String amount = field(fields, amountColumn);
+                if (amount != null && !amount.isBlank()) {
+                    try {
+                        request.setAmount(Double.parseDouble(amount.trim()));
+                    } catch (NumberFormatException e) {
+                        parseErrors.put(requests.size() + 1, "Invalid amount: " + amount);
+                    }
+                }
+                String date = field(fields, dateColumn);
+                if (date != null && !date.isBlank()) {
+                    request.setDate(date.trim());
+                }
+                requests.add(request);
+                if (requests.size() > maxRows) {
+                    throw new IllegalArgumentException("Import exceeds the maximum of " + maxRows + " rows");
+                }
+            }
+        }
+
+        return importExpenses(requests, parseErrors);
+    }
+
+    // Also used by the ingestion log drainer, inside its own transaction
+    void insertBatch(List<PendingRow> rows, List<String> categories) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                PendingRow row = rows.get(i);
+                ps.setString(1, row.description());
+                ps.setBigDecimal(2, row.amount());
+                ps.setTimestamp(3, Timestamp.valueOf(row.date()));
+                ps.setString(4, categories.get(i));
+                ps.setTimestamp(5, now);
+                ps.setTimestamp(6, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+        rollupService.recordCreates(
+                rows.stream().map(PendingRow::date).collect(Collectors.toList()),
+                categories,
+                rows.stream().map(PendingRow::amount).collect(Collectors.toList()));
+        dataVersion.bump();
+    }
+
+    private String validate(ExpenseRequest request) {
+        if (request == null) {
+            return "Row is empty";
+        }
+        Set<ConstraintViolation<ExpenseRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static LocalDateTime parseDate(String date) {
+        if (date == null || date.isEmpty()) {
+            return LocalDateTime.now();
+        }
+        return LocalDateTime.parse(date);
+    }
+
+    // Column positions by lower-cased header name; a header without description and amount is rejected
+    static Map<String, Integer> headerColumns(String header) {
+        List<String> names = splitCsvLine(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.putIfAbsent(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("description") || !columns.containsKey("amount")) {
+            throw new IllegalArgumentException("CSV header must name description and amount columns (date is optional), got: "
+                    + header);
+        }
+        return columns;
+    }
+
+    private static String field(List<String> fields, Integer column) {
+        return column != null && column < fields.size() ? fields.get(column) : null;
+    }
+
+    // One CSV record, which spans several physical lines while a quoted field is still open
+    static String readCsvRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        StringBuilder record = new StringBuilder(line);
+        boolean quoted = opensQuote(line, false);
+        while (quoted && (line = reader.readLine()) != null) {
+            record.append('\n').append(line);
+            quoted = opensQuote(line, true);
+        }
+        return record.toString();
+    }
+
+    // Whether a quoted field is still open after the line; an escaped "" toggles twice and cancels out
+    private static boolean opensQuote(String line, boolean quoted) {
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                quoted = !quoted;
+            }
+        }
+        return quoted;
+    }
+
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    record PendingRow(int row, String description, BigDecimal amount, LocalDateTime date) {
+    }
+}
@@ -0,0 +1,375 @@
+package com.ai.expense.tracker.service;
+
+import com.ai.expense.tracker.dto.ExpenseResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps {@code expenses} range-partitioned by calendar month on {@code date} (Postgres only).
+ * Partitions for the coming months are created ahead of time, rows that landed in the default
+ * partition get a partition of their own, and months older than the retention window are moved
+ * into {@code expenses_archive}, which is only read through {@link #findArchived}.
+ * <p>
+ * Hibernate creates {@code expenses} as a plain table. Converting it copies every row under an
+ * exclusive lock, so it never happens at startup: an operator runs it via {@link #startConversion}
+ * ({@code POST /api/expenses/admin/partitions/convert}) in a maintenance window. Until then the
+ * service stays inactive and the table is used as it is.
+ */
+@Service
+public class ExpensePartitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpensePartitionService.class);
+
+    private static final String DEFAULT_PARTITION = "expenses_default";
+    private static final Pattern PARTITION_NAME = Pattern.compile("expenses_(\\d{4})_(\\d{2})");
+    private static final String COLUMNS = "id, description, amount, date, category, ai_insights, created_at, updated_at";
+    // Bounds how long the detach may queue behind running queries, during which it blocks new ones
+    private static final String DETACH_LOCK_TIMEOUT = "5s";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SpendingRollupService rollupService;
+    private final ExpenseColumnStore columnStore;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final int maxPageSize;
+
+    private volatile boolean active;
+    private final AtomicBoolean converting = new AtomicBoolean();
+
+    public ExpensePartitionService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                   SpendingRollupService rollupService, ExpenseColumnStore columnStore,
+                                   @Value("${app.partitioning.enabled:true}") boolean enabled,
+                                   @Value("${app.partitioning.months-ahead:3}") int monthsAhead,
+                                   @Value("${app.partitioning.retention-months:0}") int retentionMonths,
+                                   @Value("${app.pagination.max-page-size:200}") int maxPageSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.rollupService = rollupService;
+        this.columnStore = columnStore;
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.maxPageSize = maxPageSize;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    // Runs before the rollup rebuild and column store load, so the default partition is split first
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void initialize() {
+        if (!enabled) {
+            return;
+        }
+        if (!isPostgres()) {
+            logger.info("Expense partitioning needs PostgreSQL, keeping a single table");
+            return;
+        }
+        if (!isPartitioned()) {
+            logger.warn("expenses is not partitioned yet; partition maintenance stays off until "
+                    + "POST /api/expenses/admin/partitions/convert is run in a maintenance window");
+            return;
+        }
+        active = true;
+        maintain();
+    }
+
+    /**
+     * Starts the one-off conversion of the plain table in the background. Reads and writes of
+     * {@code expenses} wait for it to finish; {@link #getStats} reports progress.
+     *
+     * @throws IllegalStateException if partitioning is disabled, the database is not PostgreSQL,
+     *                               the table is already partitioned or a conversion is running
+     */
+    public void startConversion() {
+        if (!enabled || !isPostgres()) {
+            throw new IllegalStateException("Expense partitioning needs app.partitioning.enabled and PostgreSQL");
+        }
+        if (!converting.compareAndSet(false, true)) {
+            throw new IllegalStateException("A conversion is already running");
+        }
+        if (isPartitioned()) {
+            converting.set(false);
+            throw new IllegalStateException("expenses is already partitioned");
+        }
+        Thread.ofVirtual().name("expense-partition-conversion").start(() -> {
+            try {
+                convertToPartitioned();
+                active = true;
+                maintain();
+            } catch (RuntimeException e) {
+                logger.error("Converting expenses to a partitioned table failed; nothing was changed", e);
+            } finally {
+                converting.set(false);
+            }
+        });
+    }
+
+    /**
+     * Creates upcoming partitions, splits months out of the default partition and archives months
+     * past the retention window. Safe to run repeatedly.
+     */
+    @Scheduled(cron = "${app.partitioning.maintenance-cron:0 15 2 * * *}")
+    public void maintain() {
+        if (!active) {
+            return;
+        }
+        try {
+            YearMonth current = YearMonth.now();
+            YearMonth oldestKept = retentionMonths > 0 ? current.minusMonths(retentionMonths) : null;
+            TreeSet<YearMonth> wanted = new TreeSet<>(monthsInDefaultPartition());
+            for (int i = 0; i <= monthsAhead; i++) {
+                wanted.add(current.plusMonths(i));
+            }
+            List<YearMonth> existing = existingPartitions();
+            for (YearMonth month : wanted) {
+                if (!existing.contains(month) && (oldestKept == null || !month.isBefore(oldestKept))) {
+                    transactionTemplate.executeWithoutResult(status -> createPartition(month));
+                }
+            }
+            if (oldestKept != null) {
+                archiveBefore(oldestKept);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Expense partition maintenance failed; it will be retried on the next run", e);
+        }
+    }
+
+    /**
+     * Archived expenses in {@code [from, to)}, newest first. The archive table only has a BRIN index
+     * on date, so both bounds are required and the result is capped.
+     */
+    public List<ExpenseResponse> findArchived(LocalDate from, LocalDate to, String category, int limit) {
+        if (!active) {
+            throw new IllegalStateException("Archive is only available with PostgreSQL partitioning enabled");
+        }
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Archive queries need 'from' before 'to'");
+        }
+        int rows = limit <= 0 ? maxPageSize : Math.min(limit, maxPageSize);
+        String sql = "SELECT " + COLUMNS + " FROM expenses_archive WHERE date >= ? AND date < ?"
+                + (category == null || category.isBlank() ? "" : " AND category = ?")
+                + " ORDER BY date DESC, id DESC LIMIT " + rows;
+        List<Object> args = new ArrayList<>(List.of(from.atStartOfDay(), to.atStartOfDay()));
+        if (category != null && !category.isBlank()) {
+            args.add(category);
+        }
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            ExpenseResponse response = new ExpenseResponse(rs.getLong("id"), rs.getString("description"),
+                    rs.getBigDecimal("amount").doubleValue(), rs.getString("category"),
+                    rs.getTimestamp("date").toLocalDateTime(), rs.getString("ai_insights"));
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            Timestamp updatedAt = rs.getTimestamp("updated_at");
+            response.setCreatedAt(createdAt == null ? null : createdAt.toLocalDateTime());
+            response.setUpdatedAt(updatedAt == null ? null : updatedAt.toLocalDateTime());
+            return response;
+        }, args.toArray());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("active", active);
+        stats.put("converting", converting.get());
+        if (active) {
+            stats.put("partitions", existingPartitions().stream().map(YearMonth::toString).toList());
+            stats.put("defaultPartitionRows", jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + DEFAULT_PARTITION, Long.class));
+            stats.put("archivedRows", jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses_archive", Long.class));
+        }
+        stats.put("retentionMonths", retentionMonths);
+        return stats;
+    }
+
+    /**
+     * One-off conversion of the plain table Hibernate created. The primary key has to include the
+     * partition key, so it becomes (id, date); ids keep coming from a fresh identity sequence
+     * positioned past the current maximum.
+     */
+    private void convertToPartitioned() {
+        long started = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("ALTER TABLE expenses RENAME TO expenses_unpartitioned");
+            jdbcTemplate.execute("CREATE TABLE expenses (LIKE expenses_unpartitioned INCLUDING DEFAULTS INCLUDING IDENTITY, "
+                    + "PRIMARY KEY (id, date)) PARTITION BY RANGE (date)");
+            jdbcTemplate.execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF expenses DEFAULT");
+            jdbcTemplate.execute("INSERT INTO expenses (" + COLUMNS + ") OVERRIDING SYSTEM VALUE SELECT " + COLUMNS
+                    + " FROM expenses_unpartitioned");
+            jdbcTemplate.execute("SELECT setval(pg_get_serial_sequence('expenses', 'id'), "
+                    + "COALESCE((SELECT MAX(id) FROM expenses), 0) + 1, false)");
+            // CASCADE takes the summary views with it; schema.sql recreates them along with the indexes
+            jdbcTemplate.execute("DROP TABLE expenses_unpartitioned CASCADE");
+            new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(jdbcTemplate.getDataSource());
+        });
+        logger.info("Converted expenses to a monthly partitioned table in {} ms", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Moves any rows for the month out of the default partition, then attaches the month's table
+    private void createPartition(YearMonth month) {
+        String name = partitionName(month);
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE expenses INCLUDING DEFAULTS)");
+        int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                + " WHERE date >= ? AND date < ? RETURNING " + COLUMNS + ") INSERT INTO " + name
+                + " (" + COLUMNS + ") SELECT " + COLUMNS + " FROM moved", from, to);
+        jdbcTemplate.execute("ALTER TABLE expenses ATTACH PARTITION " + name
+                + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        logger.info("Created expense partition {} ({} rows moved from the default partition)", name, moved);
+    }
+
+    private void archiveBefore(YearMonth oldestKept) {
+        LocalDateTime cutoff = oldestKept.atDay(1).atStartOfDay();
+        long archived = 0;
+        for (YearMonth month : existingPartitions()) {
+            if (month.isBefore(oldestKept)) {
+                archived += archivePartition(month);
+            }
+        }
+        // Left behind by an earlier run that failed after detaching
+        for (YearMonth month : detachedPartitions()) {
+            if (month.isBefore(oldestKept)) {
+                archived += finishArchive(month, null);
+            }
+        }
+        Integer stragglers = transactionTemplate.execute(status -> jdbcTemplate.update(
+                "WITH moved AS (DELETE FROM " + DEFAULT_PARTITION + " WHERE date < ? RETURNING " + COLUMNS + ") "
+                        + "INSERT INTO expenses_archive (" + COLUMNS + ") SELECT " + COLUMNS + " FROM moved ORDER BY date",
+                cutoff));
+        archived += stragglers == null ? 0 : stragglers;
+        if (archived > 0) {
+            // Summaries describe the live table, so drop the archived months from them. The rebuild
+            // bumps the data version, so it goes last
+            columnStore.evictBefore(oldestKept.atDay(1));
+            rollupService.rebuild();
+        }
+    }
+
+    /**
+     * Copies the month into the archive while its partition is still attached, so the copy never
+     * locks {@code expenses}, then detaches the partition in a transaction of its own that holds the
+     * exclusive lock only briefly. {@code DETACH ... CONCURRENTLY} is not an option because
+     * {@code expenses} has a default partition. Writes that raced the copy are caught before the
+     * detached table is dropped.
+     */
+    private long archivePartition(YearMonth month) {
+        String name = partitionName(month);
+        PartitionState copied = transactionTemplate.execute(status -> {
+            // Taken before the copy, so a write the copy missed always shows up as a difference later
+            PartitionState state = partitionState(name);
+            copyToArchive(month, name);
+            return state;
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("SET LOCAL lock_timeout = '" + DETACH_LOCK_TIMEOUT + "'");
+            jdbcTemplate.execute("ALTER TABLE expenses DETACH PARTITION " + name);
+        });
+        return finishArchive(month, copied);
+    }
+
+    // Re-copies the detached month if it changed since the copy (or the copy is unknown), then drops it
+    private long finishArchive(YearMonth month, PartitionState copied) {
+        String name = partitionName(month);
+        PartitionState detached = transactionTemplate.execute(status -> {
+            PartitionState state = partitionState(name);
+            if (!state.equals(copied)) {
+                copyToArchive(month, name);
+            }
+            jdbcTemplate.execute("DROP TABLE " + name);
+            return state;
+        });
+        logger.info("Archived expense partition {} ({} rows)", name, detached.rows());
+        return detached.rows();
+    }
+
+    // Replaces the month in the archive, so a repeated copy never duplicates rows
+    private void copyToArchive(YearMonth month, String name) {
+        jdbcTemplate.update("DELETE FROM expenses_archive WHERE date >= ? AND date < ?",
+                month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+        jdbcTemplate.update("INSERT INTO expenses_archive (" + COLUMNS + ") SELECT " + COLUMNS
+                + " FROM " + name + " ORDER BY date");
+    }
+
+    private PartitionState partitionState(String name) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*), MAX(updated_at) FROM " + name,
+                (rs, rowNum) -> new PartitionState(rs.getLong(1), rs.getTimestamp(2)));
+    }
+
+    private List<YearMonth> detachedPartitions() {
+        List<YearMonth> months = new ArrayList<>();
+        for (String name : jdbcTemplate.queryForList("SELECT c.relname::text FROM pg_class c WHERE c.relkind = 'r' "
+                + "AND pg_table_is_visible(c.oid) AND c.relname ~ '^expenses_[0-9]{4}_[0-9]{2}$' "
+                + "AND NOT EXISTS (SELECT 1 FROM pg_inherits i WHERE i.inhrelid = c.oid)", String.class)) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (matcher.matches()) {
+                months.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+            }
+        }
+        return months;
+    }
+
+    private boolean isPostgres() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equalsIgnoreCase(product);
+    }
+
+    private boolean isPartitioned() {
+        String kind = jdbcTemplate.queryForObject(
+                "SELECT c.relkind::text FROM pg_class c WHERE c.oid = to_regclass('expenses')", String.class);
+        return "p".equals(kind);
+    }
+
+    private List<YearMonth> existingPartitions() {
+        List<YearMonth> months = new ArrayList<>();
+        for (String name : jdbcTemplate.queryForList("SELECT c.relname::text FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'expenses'::regclass", String.class)) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (matcher.matches()) {
+                months.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+            }
+        }
+        months.sort(null);
+        return months;
+    }
+
+    private List<YearMonth> monthsInDefaultPartition() {
+        return jdbcTemplate.queryForList("SELECT DISTINCT date_trunc('month', date) FROM " + DEFAULT_PARTITION,
+                        Timestamp.class).stream()
+                .map(month -> YearMonth.from(month.toLocalDateTime()))
+                .toList();
+    }
+
+    private record PartitionState(long rows, Timestamp lastUpdated) {
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("expenses_%04d_%02d", month.getYear(), month.getMonthValue());
+    }
+}
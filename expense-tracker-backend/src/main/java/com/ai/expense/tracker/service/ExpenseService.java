@@ -1,18 +1,33 @@
 package com.ai.expense.tracker.service;
 
+import com.ai.expense.tracker.dto.AggregateStats;
+import com.ai.expense.tracker.dto.CategorizationStatusResponse;
+import com.ai.expense.tracker.dto.CursorPage;
+import com.ai.expense.tracker.dto.ExpenseCursor;
 import com.ai.expense.tracker.dto.ExpenseRequest;
 import com.ai.expense.tracker.dto.ExpenseResponse;
+import com.ai.expense.tracker.dto.RangeBucket;
+import com.ai.expense.tracker.dto.SpendingSummary;
 import com.ai.expense.tracker.model.Expense;
 import com.ai.expense.tracker.repository.ExpenseRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.function.Function;
 
 @Service
 @Transactional
@@ -20,21 +35,62 @@ public class ExpenseService {
 
     private static final Logger logger = LoggerFactory.getLogger(ExpenseService.class);
 
+    // Recent expenses quoted in the insights prompt; totals come from the rollups
+    private static final int INSIGHTS_SAMPLE_SIZE = 15;
+
+    // Starts the first page above every stored row, so it can share the keyset query with later pages
+    private static final ExpenseCursor FIRST_PAGE = new ExpenseCursor(-1, LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE);
+
+    // Keeps a day-bucketed range query from returning an unbounded number of rows
+    private static final long MAX_RANGE_DAYS_BY_DAY = 3660;
+
     private final ExpenseRepository expenseRepository;
     private final AIExpenseService aiExpenseService;
+    private final CategorizationWorker categorizationWorker;
+    private final SpendingRollupService rollupService;
+    private final TransactionTemplate transactionTemplate;
+    private final DataVersion dataVersion;
+    private final InsightsCache insightsCache;
+    private final ExpenseColumnStore columnStore;
+    private final ExpenseChangeFeed changeFeed;
+    private final int defaultPageSize;
+    private final int maxPageSize;
 
-    public ExpenseService(ExpenseRepository expenseRepository, AIExpenseService aiExpenseService) {
+    public ExpenseService(ExpenseRepository expenseRepository, AIExpenseService aiExpenseService,
+                          CategorizationWorker categorizationWorker, SpendingRollupService rollupService,
+                          TransactionTemplate transactionTemplate, DataVersion dataVersion,
+                          InsightsCache insightsCache, ExpenseColumnStore columnStore, ExpenseChangeFeed changeFeed,
+                          @Value("${app.pagination.default-page-size:50}") int defaultPageSize,
+                          @Value("${app.pagination.max-page-size:200}") int maxPageSize) {
         this.expenseRepository = expenseRepository;
         this.aiExpenseService = aiExpenseService;
+        this.categorizationWorker = categorizationWorker;
+        this.rollupService = rollupService;
+        this.transactionTemplate = transactionTemplate;
+        this.dataVersion = dataVersion;
+        this.insightsCache = insightsCache;
+        this.columnStore = columnStore;
+        this.changeFeed = changeFeed;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
-    public List<ExpenseResponse> getAllExpenses() {
-        logger.info("Fetching all expenses");
-        return expenseRepository.findAllByOrderByDateDesc().stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPage<?> getAllExpenses(String cursor, int limit, String view) {
+        logger.debug("Fetching expenses page (cursor={}, limit={})", cursor, limit);
+        int pageSize = clampPageSize(limit);
+        Limit fetch = Limit.of(pageSize + 1);
+        ExpenseCursor after = startAfter(cursor);
+        if (isCompact(view)) {
+            return toPage(expenseRepository.findItemsAfter(after.date(), after.id(), fetch), pageSize,
+                    item -> new ExpenseCursor(item.date(), item.id()));
+        }
+        return toPage(expenseRepository.findPageAfter(after.date(), after.id(), fetch), pageSize, ExpenseCursor::of);
     }
 
+    // Runs outside a transaction so the model round trip never holds a pooled connection;
+    // the insert and its rollup update share one short transaction afterwards.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ExpenseResponse createExpense(ExpenseRequest request) {
         logger.info("Creating new expense: {}", request.getDescription());
 
@@ -57,54 +113,250 @@ public class ExpenseService {
             expense.setDate(LocalDateTime.now());
         }
 
-        // AI categorization
-        String category = aiExpenseService.categorizeExpense(request.getDescription());
+        // AI categorization, deferred to the background worker in async mode
+        boolean async = categorizationWorker.isEnabled();
+        String category = async
+                ? CategorizationWorker.PENDING
+                : aiExpenseService.categorizeExpense(request.getDescription());
         expense.setCategory(category);
 
-        Expense savedExpense = expenseRepository.save(expense);
+        Expense savedExpense = transactionTemplate.execute(status -> {
+            Expense saved = expenseRepository.save(expense);
+            rollupService.recordCreate(saved.getDate(), saved.getCategory(), saved.getAmount());
+            // Registered before the version bump so the new version never precedes the column store
+            columnStore.recordCreate(saved);
+            dataVersion.bump();
+            changeFeed.publishCreated(convertToResponse(saved));
+            return saved;
+        });
         logger.info("Expense created with ID: {}", savedExpense.getId());
+        if (async) {
+            categorizationWorker.submit(savedExpense.getId(), savedExpense.getDescription());
+        }
 
         return convertToResponse(savedExpense);
     }
 
     public void deleteExpense(Long id) {
         logger.info("Deleting expense with ID: {}", id);
-        if (!expenseRepository.existsById(id)) {
-            throw new RuntimeException("Expense not found with id: " + id);
-        }
-        expenseRepository.deleteById(id);
+        Expense expense = expenseRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Expense not found with id: " + id));
+        expenseRepository.deleteByIdAndDate(id, expense.getDate());
+        rollupService.recordDelete(expense.getDate(), expense.getCategory(), expense.getAmount());
+        columnStore.recordDelete(id);
+        dataVersion.bump();
+        changeFeed.publishDeleted(id);
+    }
+
+    @Transactional(readOnly = true)
+    public CategorizationStatusResponse getCategorizationStatus(Long id) {
+        Expense expense = expenseRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Expense not found with id: " + id));
+        return new CategorizationStatusResponse(expense.getId(), expense.getCategory());
     }
 
+    // No surrounding transaction: a cache miss calls the model, which must not hold a connection
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public String generateInsights() {
-        logger.info("Generating AI insights");
-        List<Expense> expenses = expenseRepository.findAll();
-        return aiExpenseService.generateSpendingInsights(expenses);
+        // Cached against the current version, so never computed from a lagging replica
+        return insightsCache.get(dataVersion.current(), () -> ReadContext.onPrimary(() -> {
+            logger.info("Generating AI insights");
+            SpendingSummary summary = rollupService.getSummary();
+            List<Expense> recent = expenseRepository.findAllByOrderByDateDescIdDesc(Limit.of(INSIGHTS_SAMPLE_SIZE));
+            return aiExpenseService.generateSpendingInsights(summary, recent);
+        }));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<?> getExpensesByCategory(String category, String cursor, int limit, String view) {
+        logger.debug("Fetching expenses for category: {} (cursor={}, limit={})", category, cursor, limit);
+        int pageSize = clampPageSize(limit);
+        Limit fetch = Limit.of(pageSize + 1);
+        ExpenseCursor after = startAfter(cursor);
+        if (isCompact(view)) {
+            return toPage(expenseRepository.findCategoryItemsAfter(category, after.date(), after.id(), fetch), pageSize,
+                    item -> new ExpenseCursor(item.date(), item.id()));
+        }
+        return toPage(expenseRepository.findCategoryPageAfter(category, after.date(), after.id(), fetch), pageSize,
+                ExpenseCursor::of);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<?> searchExpenses(String query, String cursor, int limit, String view) {
+        logger.debug("Searching expenses with query: {} (cursor={}, limit={})", query, cursor, limit);
+        // LIKE '%%' matches everything and no index can serve it; a blank search is just the listing
+        if (query == null || query.isBlank()) {
+            return getAllExpenses(cursor, limit, view);
+        }
+        int pageSize = clampPageSize(limit);
+        Limit fetch = Limit.of(pageSize + 1);
+        String needle = query.trim().toLowerCase();
+        String escaped = escapeLike(needle);
+        String contains = "%" + escaped + "%";
+        String prefix = escaped + "%";
+        String wordPrefix = "% " + escaped + "%";
+        ExpenseCursor after = startAfter(cursor);
+        if (isCompact(view)) {
+            return toPage(expenseRepository.searchItemsAfter(contains, prefix, wordPrefix,
+                            after.rank(), after.date(), after.id(), fetch), pageSize,
+                    item -> new ExpenseCursor(searchRank(item.description(), needle), item.date(), item.id()));
+        }
+        return toPage(expenseRepository.searchPageAfter(contains, prefix, wordPrefix,
+                        after.rank(), after.date(), after.id(), fetch), pageSize,
+                response -> ExpenseCursor.of(searchRank(response.getDescription(), needle), response));
+    }
+
+    // Mirrors ExpenseRepository.SEARCH_RANK so the cursor resumes in the right rank tier
+    static int searchRank(String description, String needle) {
+        String lower = description.toLowerCase();
+        if (lower.startsWith(needle)) {
+            return 0;
+        }
+        return lower.contains(" " + needle) ? 1 : 2;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    /**
+     * Aggregates over {@code [from, to)} from the in-memory column store. {@code groupBy} is
+     * {@code none}, {@code category} or {@code month}; the ungrouped result is keyed "all".
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, AggregateStats> getSnapshotAggregates(LocalDate from, LocalDate to, String category, String groupBy) {
+        if (!columnStore.isReady()) {
+            throw new IllegalStateException("Analytics snapshot is not loaded");
+        }
+        return switch (groupBy == null ? "none" : groupBy.toLowerCase()) {
+            case "none" -> Map.of("all", columnStore.aggregate(from, to, category));
+            case "category" -> columnStore.aggregateByCategory(from, to);
+            case "month" -> columnStore.aggregateByMonth(from, to, category);
+            default -> throw new IllegalArgumentException("Unsupported groupBy: " + groupBy);
+        };
+    }
+
+    /**
+     * Count/sum/avg/min/max per day, week or month over {@code [from, to)}, aggregated in SQL.
+     * Defaults to the twelve months up to and including today. With {@code byCategory} each bucket
+     * is split per category; otherwise {@code category} optionally restricts the rows.
+     */
+    @Transactional(readOnly = true)
+    public List<RangeBucket> getRangeAnalytics(LocalDate from, LocalDate to, String bucket, String category,
+                                               boolean byCategory) {
+        String unit = bucket == null ? "month" : bucket.toLowerCase();
+        if (!List.of("day", "week", "month").contains(unit)) {
+            throw new IllegalArgumentException("Unsupported bucket: " + bucket + " (expected day, week or month)");
+        }
+        LocalDate end = to != null ? to : LocalDate.now().plusDays(1);
+        LocalDate start = from != null ? from : end.minusYears(1);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        if ("day".equals(unit) && ChronoUnit.DAYS.between(start, end) > MAX_RANGE_DAYS_BY_DAY) {
+            throw new IllegalArgumentException("Day buckets are limited to " + MAX_RANGE_DAYS_BY_DAY + " days");
+        }
+
+        LocalDateTime fromTime = start.atStartOfDay();
+        LocalDateTime toTime = end.atStartOfDay();
+        List<RangeBucket> buckets = new ArrayList<>();
+        if (byCategory) {
+            for (Object[] row : expenseRepository.aggregateRangeByCategory(unit, fromTime, toTime)) {
+                buckets.add(new RangeBucket(toLocalDate(row[0]), (String) row[1], toStats(row, 2)));
+            }
+        } else {
+            List<Object[]> rows = category == null || category.isBlank()
+                    ? expenseRepository.aggregateRange(unit, fromTime, toTime)
+                    : expenseRepository.aggregateRangeForCategory(unit, category, fromTime, toTime);
+            for (Object[] row : rows) {
+                buckets.add(new RangeBucket(toLocalDate(row[0]), null, toStats(row, 1)));
+            }
+        }
+        return buckets;
+    }
+
+    // row[offset..offset+3] = count, sum, min, max
+    private static AggregateStats toStats(Object[] row, int offset) {
+        return new AggregateStats(((Number) row[offset]).longValue(), toBigDecimal(row[offset + 1]),
+                toBigDecimal(row[offset + 2]), toBigDecimal(row[offset + 3]));
     }
 
-    public List<ExpenseResponse> getExpensesByCategory(String category) {
-        logger.info("Fetching expenses for category: {}", category);
-        return expenseRepository.findByCategoryOrderByDateDesc(category).stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null || value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        return new BigDecimal(value.toString());
     }
 
-    public List<ExpenseResponse> searchExpenses(String query) {
-        logger.info("Searching expenses with query: {}", query);
-        return expenseRepository.findByDescriptionContainingIgnoreCase(query).stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    // date_trunc returns a timestamp; drivers surface it as Timestamp or LocalDateTime
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toLocalDate();
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime.toLocalDate();
+        }
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        }
+        return (LocalDate) value;
     }
 
+    @Transactional(readOnly = true)
     public Double getTotalSpent() {
+        if (columnStore.isReady()) {
+            return columnStore.aggregate(null, null, null).getTotal().doubleValue();
+        }
         BigDecimal total = expenseRepository.getTotalAmount();
         return total != null ? total.doubleValue() : 0.0;
     }
 
+    @Transactional(readOnly = true)
     public Long getTotalCount() {
+        if (columnStore.isReady()) {
+            return columnStore.aggregate(null, null, null).getCount();
+        }
         return expenseRepository.getTotalCount();
     }
 
-    private ExpenseResponse convertToResponse(Expense expense) {
+    @Transactional(readOnly = true)
+    public SpendingSummary getSpendingSummary() {
+        return rollupService.getSummary();
+    }
+
+    private int clampPageSize(int limit) {
+        if (limit <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    // Rows are fetched with one extra element so we know whether another page exists
+    // without issuing a separate COUNT query.
+    private static <T> CursorPage<T> toPage(List<T> rows, int pageSize, Function<T, ExpenseCursor> cursorOf) {
+        boolean hasMore = rows.size() > pageSize;
+        List<T> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String nextCursor = hasMore && !items.isEmpty()
+                ? cursorOf.apply(items.get(items.size() - 1)).encode()
+                : null;
+        return new CursorPage<>(items, nextCursor);
+    }
+
+    private static ExpenseCursor startAfter(String cursor) {
+        return cursor == null || cursor.isBlank() ? FIRST_PAGE : ExpenseCursor.decode(cursor);
+    }
+
+    private static boolean isCompact(String view) {
+        if (view == null || "full".equalsIgnoreCase(view)) {
+            return false;
+        }
+        if ("compact".equalsIgnoreCase(view)) {
+            return true;
+        }
+        throw new IllegalArgumentException("Unsupported view: " + view + " (expected full or compact)");
+    }
+
+    static ExpenseResponse convertToResponse(Expense expense) {
         ExpenseResponse response = new ExpenseResponse();
         response.setId(expense.getId());
         response.setDescription(expense.getDescription());
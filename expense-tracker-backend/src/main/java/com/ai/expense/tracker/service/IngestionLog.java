@@ -0,0 +1,523 @@
+package com.ai.expense.tracker.service;
+
+import com.ai.expense.tracker.dto.ExpenseRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Local write-ahead log for {@code app.ingest.mode=log}. Validated requests are appended to
+ * fixed-size memory-mapped segment files and acknowledged once forced to disk; appends that arrive
+ * while a force is running share the next one. {@link IngestionLogDrainer} applies entries to
+ * Postgres and reports the committed offset back, after which fully applied segments are deleted.
+ * <p>
+ * Offsets are byte positions across segments: segment files are named after their base offset and
+ * each record is {@code [length][crc32c][payload]}. A record that does not fit in the rest of a
+ * segment starts the next one, whose base is the previous base plus the segment size.
+ */
+@Component
+public class IngestionLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionLog.class);
+
+    private static final int HEADER = 8;
+    private static final int ROLL_MARKER = -1;
+    private static final String SUFFIX = ".log";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final long lingerNanos;
+    private final Timer fsyncTimer;
+    private final Counter appends;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition written = lock.newCondition();
+    private final Condition durable = lock.newCondition();
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final AtomicLong pendingEntries = new AtomicLong();
+    private Segment active;
+    private long writeOffset;
+    private volatile long durableOffset;
+    private volatile long committedOffset;
+    private volatile boolean running;
+    private Thread flusher;
+
+    public IngestionLog(MeterRegistry meterRegistry,
+                        @Value("${app.ingest.mode:direct}") String mode,
+                        @Value("${app.ingest.log.dir:./data/ingest-log}") Path directory,
+                        @Value("${app.ingest.log.segment-size:64MB}") DataSize segmentSize,
+                        @Value("${app.ingest.log.linger:1ms}") Duration linger) {
+        this.enabled = "log".equalsIgnoreCase(mode);
+        this.directory = directory;
+        this.segmentSize = (int) Math.min(segmentSize.toBytes(), Integer.MAX_VALUE);
+        this.lingerNanos = linger.toNanos();
+        this.fsyncTimer = Timer.builder("expense.ingest.log.fsync").register(meterRegistry);
+        this.appends = Counter.builder("expense.ingest.log.appends").register(meterRegistry);
+        Gauge.builder("expense.ingest.log.lag.entries", pendingEntries, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("expense.ingest.log.lag.bytes", this, log -> log.durableOffset - log.committedOffset)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        List<Long> bases;
+        try (Stream<Path> files = Files.list(directory)) {
+            bases = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+        for (long base : bases) {
+            segments.put(base, Segment.open(segmentPath(base), base, segmentSize));
+        }
+        if (segments.isEmpty()) {
+            active = createSegment(0);
+            writeOffset = 0;
+        } else {
+            recover();
+        }
+        durableOffset = writeOffset;
+        committedOffset = segments.firstKey();
+        running = true;
+        flusher = Thread.ofVirtual().name("ingest-log-flusher").start(this::flushLoop);
+        logger.info("Ingestion log open at {} ({} segments, end offset {})", directory, segments.size(), writeOffset);
+    }
+
+    @PreDestroy
+    void close() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        lock.lock();
+        try {
+            running = false;
+            written.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        flusher.join(TimeUnit.SECONDS.toMillis(5));
+        lock.lock();
+        try {
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+            durable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends a validated request and returns once it is on disk. A missing or unparseable date
+     * becomes the time of the append, as on the direct path.
+     *
+     * @return offset just past the new entry
+     */
+    public long append(ExpenseRequest request) throws IOException {
+        byte[] payload = encode(request.getDescription(), request.getAmount(), resolveDate(request.getDate()),
+                System.currentTimeMillis());
+        if (HEADER + payload.length > segmentSize) {
+            throw new IllegalArgumentException("Expense does not fit in an ingestion log segment");
+        }
+        long end;
+        lock.lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Ingestion log is closed");
+            }
+            end = write(payload);
+            pendingEntries.incrementAndGet();
+            written.signal();
+            while (durableOffset < end) {
+                if (!running) {
+                    throw new IOException("Ingestion log closed before the entry was forced to disk");
+                }
+                durable.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the ingestion log to sync");
+        } finally {
+            lock.unlock();
+        }
+        appends.increment();
+        return end;
+    }
+
+    /**
+     * Reads up to {@code max} durable entries starting at {@code from}, which must be an offset
+     * previously returned as an entry's {@code next}.
+     */
+    public Batch read(long from, int max) {
+        long limit = durableOffset;
+        List<Entry> entries = new ArrayList<>();
+        long offset = from;
+        while (entries.size() < max && offset < limit) {
+            Segment segment = segmentAt(offset);
+            int position = (int) (offset - segment.base);
+            int length = position + HEADER <= segmentSize ? segment.buffer.getInt(position) : ROLL_MARKER;
+            if (length == ROLL_MARKER) {
+                offset = segment.base + segmentSize;
+                continue;
+            }
+            if (length <= 0) {
+                throw new IllegalStateException("Corrupt ingestion log entry at offset " + offset);
+            }
+            byte[] payload = new byte[length];
+            segment.buffer.get(position + HEADER, payload);
+            long next = offset + HEADER + length;
+            entries.add(decode(offset, next, payload));
+            offset = next;
+        }
+        return new Batch(entries, offset);
+    }
+
+    /**
+     * Waits until data past {@code offset} is durable or the timeout passes.
+     */
+    public void awaitData(long offset, Duration timeout) throws InterruptedException {
+        long remaining = timeout.toNanos();
+        lock.lock();
+        try {
+            while (running && durableOffset <= offset && remaining > 0) {
+                remaining = durable.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Start of the retained log; everything before it has been applied and deleted.
+     */
+    public long startOffset() {
+        lock.lock();
+        try {
+            return segments.firstKey();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long durableOffset() {
+        return durableOffset;
+    }
+
+    /**
+     * Sets the applied position found at startup and counts the entries still to be applied.
+     */
+    public void resumeFrom(long committed) {
+        release(committed, countEntries(startOffset(), committed));
+    }
+
+    /**
+     * Number of entries between two entry boundaries.
+     */
+    public int countEntries(long from, long to) {
+        int count = 0;
+        long offset = from;
+        while (offset < to) {
+            Batch batch = read(offset, 1000);
+            for (Entry entry : batch.entries()) {
+                if (entry.next() > to) {
+                    return count;
+                }
+                count++;
+            }
+            if (batch.entries().isEmpty()) {
+                break;
+            }
+            offset = batch.next();
+        }
+        return count;
+    }
+
+    /**
+     * Records that everything before {@code committed} is in the database and deletes the
+     * segments that lie entirely before it.
+     */
+    public void release(long committed, int appliedEntries) {
+        committedOffset = committed;
+        pendingEntries.addAndGet(-appliedEntries);
+        lock.lock();
+        try {
+            while (segments.size() > 1 && segments.firstKey() + segmentSize <= committed) {
+                Segment segment = segments.pollFirstEntry().getValue();
+                segment.close();
+                Files.deleteIfExists(segmentPath(segment.base));
+            }
+        } catch (IOException e) {
+            logger.warn("Could not delete an applied ingestion log segment", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        if (enabled) {
+            stats.put("durableOffset", durableOffset);
+            stats.put("committedOffset", committedOffset);
+            stats.put("lagBytes", durableOffset - committedOffset);
+            stats.put("lagEntries", pendingEntries.get());
+            lock.lock();
+            try {
+                stats.put("segments", segments.size());
+            } finally {
+                lock.unlock();
+            }
+        }
+        return stats;
+    }
+
+    // Caller holds the lock
+    private long write(byte[] payload) throws IOException {
+        int position = (int) (writeOffset - active.base);
+        if (position + HEADER + payload.length > segmentSize) {
+            if (position + HEADER <= segmentSize) {
+                active.buffer.putInt(position, ROLL_MARKER);
+            }
+            // The old segment is complete; force it here so the flusher only ever syncs the active one
+            active.buffer.force();
+            active = createSegment(active.base + segmentSize);
+            writeOffset = active.base;
+            position = 0;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        active.buffer.put(position + HEADER, payload);
+        active.buffer.putInt(position + 4, (int) crc.getValue());
+        active.buffer.putInt(position, payload.length);
+        writeOffset += HEADER + payload.length;
+        return writeOffset;
+    }
+
+    private void flushLoop() {
+        while (true) {
+            Segment segment;
+            long target;
+            lock.lock();
+            try {
+                while (running && writeOffset == durableOffset) {
+                    written.awaitUninterruptibly();
+                }
+                if (!running && writeOffset == durableOffset) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            // Let appends that arrive meanwhile ride along with this sync
+            if (lingerNanos > 0) {
+                try {
+                    Thread.sleep(Duration.ofNanos(lingerNanos));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            lock.lock();
+            try {
+                segment = active;
+                target = writeOffset;
+            } finally {
+                lock.unlock();
+            }
+            fsyncTimer.record(() -> segment.buffer.force());
+            lock.lock();
+            try {
+                durableOffset = target;
+                durable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Finds the end of the log after a restart: the first record that is zero, torn or fails its
+     * checksum. The rest of that segment is zeroed so new appends never sit in front of stale bytes.
+     */
+    private void recover() throws IOException {
+        Segment segment = segments.firstEntry().getValue();
+        int position = 0;
+        int recovered = 0;
+        while (true) {
+            int length = position + HEADER <= segmentSize ? segment.buffer.getInt(position) : ROLL_MARKER;
+            Segment next = segments.get(segment.base + segmentSize);
+            if (length == ROLL_MARKER && next != null) {
+                segment = next;
+                position = 0;
+                continue;
+            }
+            if (length <= 0 || position + HEADER + length > segmentSize || !checksumMatches(segment, position, length)) {
+                break;
+            }
+            position += HEADER + length;
+            recovered++;
+        }
+        for (int i = position; i < segmentSize; i++) {
+            segment.buffer.put(i, (byte) 0);
+        }
+        segment.buffer.force();
+        while (segments.lastKey() > segment.base) {
+            Segment orphan = segments.pollLastEntry().getValue();
+            logger.warn("Dropping ingestion log segment {} found after the end of the log", orphan.base);
+            orphan.close();
+            Files.deleteIfExists(segmentPath(orphan.base));
+        }
+        active = segment;
+        writeOffset = segment.base + position;
+        pendingEntries.set(recovered);
+        logger.info("Recovered {} ingestion log entries up to offset {}", recovered, writeOffset);
+    }
+
+    private Segment createSegment(long base) throws IOException {
+        Segment segment = Segment.open(segmentPath(base), base, segmentSize);
+        segments.put(base, segment);
+        // Make the new file's directory entry durable too
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        }
+        return segment;
+    }
+
+    private Segment segmentAt(long offset) {
+        lock.lock();
+        try {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(offset);
+            if (entry == null) {
+                throw new IllegalStateException("Offset " + offset + " is before the start of the ingestion log");
+            }
+            return entry.getValue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Path segmentPath(long base) {
+        return directory.resolve(String.format("%020d%s", base, SUFFIX));
+    }
+
+    private static boolean checksumMatches(Segment segment, int position, int length) {
+        byte[] payload = new byte[length];
+        segment.buffer.get(position + HEADER, payload);
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue() == segment.buffer.getInt(position + 4);
+    }
+
+    private static LocalDateTime resolveDate(String date) {
+        if (date == null || date.isEmpty()) {
+            return LocalDateTime.now();
+        }
+        try {
+            return LocalDateTime.parse(date);
+        } catch (Exception e) {
+            logger.warn("Invalid date format: {}, using current time", date);
+            return LocalDateTime.now();
+        }
+    }
+
+    private static byte[] encode(String description, double amount, LocalDateTime date, long receivedAt) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + description.length());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(description);
+            out.writeDouble(amount);
+            out.writeUTF(date.toString());
+            out.writeLong(receivedAt);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Entry decode(long offset, long next, byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            return new Entry(offset, next, in.readUTF(), in.readDouble(), LocalDateTime.parse(in.readUTF()), in.readLong());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public record Entry(long offset, long next, String description, double amount, LocalDateTime date,
+                        long receivedAt) {
+    }
+
+    /**
+     * Entries read in one call and the offset reading stopped at.
+     */
+    public record Batch(List<Entry> entries, long next) {
+    }
+
+    private static final class Segment {
+        final long base;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+
+        private Segment(long base, FileChannel channel, MappedByteBuffer buffer) {
+            this.base = base;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(Path path, long base, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            return new Segment(base, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug("Could not close ingestion log segment {}", base, e);
+            }
+        }
+    }
+}
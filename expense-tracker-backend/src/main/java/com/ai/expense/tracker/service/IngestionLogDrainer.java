@@ -0,0 +1,250 @@
+package com.ai.expense.tracker.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Applies {@link IngestionLog} entries to Postgres in batches: categorize, bulk-insert, and move
+ * the log's row in {@code ingest_log_offsets} forward, all but the model call in one transaction.
+ * After a crash the drainer resumes from the stored offset, so an entry is inserted exactly once
+ * whether the crash came before or after its batch committed.
+ * <p>
+ * A batch the database rejects as invalid data is retried one entry at a time; entries that are
+ * still rejected move to {@code ingest_log_dead_letters} together with the offset, so a single bad
+ * entry cannot hold up the log. Any other error is retried with backoff.
+ */
+@Component
+public class IngestionLogDrainer {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionLogDrainer.class);
+
+    private static final Duration IDLE_WAIT = Duration.ofSeconds(1);
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final IngestionLog log;
+    private final ExpenseImportService importService;
+    private final AIExpenseService aiExpenseService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DataVersion dataVersion;
+    private final ExpenseColumnStore columnStore;
+    private final ExpenseChangeFeed changeFeed;
+    private final String logName;
+    private final int batchSize;
+    private final Counter applied;
+    private final Counter failures;
+    private final Counter deadLetters;
+
+    private volatile long committed;
+    private volatile long headReceivedAt;
+    private volatile boolean running;
+    private Thread thread;
+
+    public IngestionLogDrainer(IngestionLog log, ExpenseImportService importService, AIExpenseService aiExpenseService,
+                               JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                               DataVersion dataVersion, ExpenseColumnStore columnStore, ExpenseChangeFeed changeFeed,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.ingest.log.name:default}") String logName,
+                               @Value("${app.ingest.log.batch-size:1000}") int batchSize) {
+        this.log = log;
+        this.importService = importService;
+        this.aiExpenseService = aiExpenseService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.dataVersion = dataVersion;
+        this.columnStore = columnStore;
+        this.changeFeed = changeFeed;
+        this.logName = logName;
+        this.batchSize = batchSize;
+        this.applied = Counter.builder("expense.ingest.log.applied").register(meterRegistry);
+        this.failures = Counter.builder("expense.ingest.log.apply.failures").register(meterRegistry);
+        this.deadLetters = Counter.builder("expense.ingest.log.dead.letters").register(meterRegistry);
+        // Age of the oldest entry not yet in the database
+        Gauge.builder("expense.ingest.log.lag", this, IngestionLogDrainer::lagSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    // Runs after schema.sql has created ingest_log_offsets and the partition setup is done
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!log.isEnabled()) {
+            return;
+        }
+        committed = loadCommittedOffset();
+        log.resumeFrom(committed);
+        running = true;
+        thread = Thread.ofVirtual().name("ingest-log-drainer").start(this::runLoop);
+        logger.info("Ingestion log drainer started at offset {} (durable end {})", committed, log.durableOffset());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            // Let an in-flight batch finish; an interrupted one is simply replayed on the next start
+            thread.join(Duration.ofSeconds(10));
+        }
+    }
+
+    private void runLoop() {
+        int consecutiveFailures = 0;
+        while (running) {
+            try {
+                IngestionLog.Batch batch = log.read(committed, batchSize);
+                if (batch.entries().isEmpty()) {
+                    headReceivedAt = 0;
+                    log.awaitData(batch.next(), IDLE_WAIT);
+                    continue;
+                }
+                headReceivedAt = batch.entries().get(0).receivedAt();
+                List<IngestionLog.Entry> entries = batch.entries();
+                // Categorize before the transaction so model latency never holds a connection
+                List<String> categories = aiExpenseService.categorizeExpenses(
+                        entries.stream().map(IngestionLog.Entry::description).collect(Collectors.toList()));
+                try {
+                    apply(entries, categories);
+                } catch (DataIntegrityViolationException e) {
+                    logger.warn("Ingestion log batch at offset {} was rejected ({}); applying its entries one at a time",
+                            committed, e.getMostSpecificCause().getMessage());
+                    for (int i = 0; i < entries.size(); i++) {
+                        applyOrDeadLetter(entries.get(i), categories.get(i));
+                    }
+                }
+                consecutiveFailures = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                failures.increment();
+                consecutiveFailures++;
+                long backoff = Math.min(MAX_BACKOFF_MILLIS, 100L << Math.min(consecutiveFailures, 10));
+                logger.error("Applying ingestion log entries from offset {} failed, retrying in {}ms", committed, backoff, e);
+                try {
+                    Thread.sleep(backoff);
+                    // The batch may have committed before the error surfaced; the database knows
+                    long before = committed;
+                    committed = loadCommittedOffset();
+                    if (committed > before) {
+                        log.release(committed, log.countEntries(before, committed));
+                    }
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (IllegalStateException offsetOutsideLog) {
+                    logger.error("Stopping the ingestion log drainer: {}", offsetOutsideLog.getMessage());
+                    running = false;
+                    return;
+                } catch (RuntimeException reloadFailure) {
+                    logger.warn("Could not reload the committed ingestion log offset: {}", reloadFailure.getMessage());
+                }
+            }
+        }
+    }
+
+    private void apply(List<IngestionLog.Entry> entries, List<String> categories) {
+        List<ExpenseImportService.PendingRow> rows = entries.stream()
+                .map(entry -> new ExpenseImportService.PendingRow(0, entry.description(),
+                        BigDecimal.valueOf(entry.amount()), entry.date()))
+                .collect(Collectors.toList());
+        long from = committed;
+        long to = entries.get(entries.size() - 1).next();
+        long highestIdBefore = columnStore.highestId();
+        transactionTemplate.executeWithoutResult(status -> {
+            importService.insertBatch(rows, categories);
+            advanceOffset(from, to);
+        });
+        committed = to;
+        log.release(to, entries.size());
+        applied.increment(entries.size());
+
+        columnStore.catchUp(highestIdBefore);
+        dataVersion.bump();
+        changeFeed.publishImported(entries.size());
+        logger.debug("Applied {} ingestion log entries, committed offset {}", entries.size(), to);
+    }
+
+    // Reuses the category computed for the whole batch instead of asking the model again
+    private void applyOrDeadLetter(IngestionLog.Entry entry, String category) {
+        try {
+            apply(List.of(entry), List.of(category));
+        } catch (DataIntegrityViolationException e) {
+            deadLetter(entry, e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    // Parks a rejected entry and skips past it in one transaction, so it is neither lost nor applied twice
+    private void deadLetter(IngestionLog.Entry entry, String error) {
+        long from = committed;
+        long to = entry.next();
+        String reason = error == null ? "" : error.substring(0, Math.min(error.length(), MAX_ERROR_LENGTH));
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO ingest_log_dead_letters (log_name, log_offset, description, amount, "
+                            + "expense_date, received_at, error, failed_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                    logName, entry.offset(), entry.description(), entry.amount(), Timestamp.valueOf(entry.date()),
+                    new Timestamp(entry.receivedAt()), reason, Timestamp.valueOf(LocalDateTime.now()));
+            advanceOffset(from, to);
+        });
+        committed = to;
+        log.release(to, 1);
+        deadLetters.increment();
+        logger.error("Moved ingestion log entry at offset {} to the dead letters: {}", entry.offset(), reason);
+    }
+
+    // Caller holds a transaction; the compare-and-set guards against a second drainer on the same log
+    private void advanceOffset(long from, long to) {
+        int updated = jdbcTemplate.update("UPDATE ingest_log_offsets SET committed_offset = ?, updated_at = ? "
+                + "WHERE log_name = ? AND committed_offset = ?", to, Timestamp.valueOf(LocalDateTime.now()), logName, from);
+        if (updated != 1) {
+            throw new IllegalStateException("Offset of ingestion log '" + logName + "' was moved by another drainer");
+        }
+    }
+
+    /**
+     * Reads the stored offset, creating the row on first use. A stored offset the log does not
+     * cover means the log was replaced or truncated (e.g. a new volume); restarting from its start
+     * could insert entries a second time, so that fails instead and an operator has to reconcile
+     * the log with the database and set the offset by hand.
+     */
+    private long loadCommittedOffset() {
+        List<Long> stored = jdbcTemplate.queryForList(
+                "SELECT committed_offset FROM ingest_log_offsets WHERE log_name = ?", Long.class, logName);
+        long start = log.startOffset();
+        if (stored.isEmpty()) {
+            jdbcTemplate.update("INSERT INTO ingest_log_offsets (log_name, committed_offset, updated_at) VALUES (?, ?, ?)",
+                    logName, start, Timestamp.valueOf(LocalDateTime.now()));
+            return start;
+        }
+        long offset = stored.get(0);
+        if (offset > log.durableOffset() || offset < start) {
+            throw new IllegalStateException("Ingestion log '" + logName + "' does not contain committed offset "
+                    + offset + " (log covers " + start + "-" + log.durableOffset() + "); update "
+                    + "ingest_log_offsets.committed_offset once the log and the database are reconciled");
+        }
+        return offset;
+    }
+
+    private double lagSeconds() {
+        long head = headReceivedAt;
+        return head == 0 ? 0 : (System.currentTimeMillis() - head) / 1000.0;
+    }
+}
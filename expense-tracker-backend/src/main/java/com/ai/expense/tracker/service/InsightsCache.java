@@ -0,0 +1,95 @@
+package com.ai.expense.tracker.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Caches the last generated insights together with the {@link DataVersion} they were built from.
+ * Concurrent requests for the same version share one in-flight generation; optionally a stale
+ * result is served immediately while a background refresh catches up.
+ */
+@Component
+public class InsightsCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(InsightsCache.class);
+
+    private final boolean serveStale;
+    private final MeterRegistry meterRegistry;
+    private final Timer generationTimer;
+    private final ConcurrentMap<Long, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private volatile Entry latest;
+
+    public InsightsCache(MeterRegistry meterRegistry, @Value("${app.insights.serve-stale:false}") boolean serveStale) {
+        this.serveStale = serveStale;
+        this.meterRegistry = meterRegistry;
+        this.generationTimer = Timer.builder("expense.insights.generation")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public String get(long version, Supplier<String> generator) {
+        Entry cached = latest;
+        if (cached != null && cached.version() == version) {
+            countRequest("hit");
+            return cached.insights();
+        }
+        if (serveStale && cached != null) {
+            countRequest("stale");
+            Thread.ofVirtual().name("insights-refresh").start(() -> {
+                try {
+                    generate(version, generator);
+                } catch (RuntimeException e) {
+                    logger.warn("Background insights refresh failed", e);
+                }
+            });
+            return cached.insights();
+        }
+        return generate(version, generator);
+    }
+
+    private String generate(long version, Supplier<String> generator) {
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(version, mine);
+        if (existing != null) {
+            countRequest("joined");
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+        countRequest("generated");
+        try {
+            String insights = generationTimer.record(generator);
+            Entry cached = latest;
+            if (cached == null || cached.version() < version) {
+                latest = new Entry(version, insights);
+            }
+            mine.complete(insights);
+            return insights;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(version, mine);
+        }
+    }
+
+    private void countRequest(String result) {
+        Counter.builder("expense.insights.requests").tag("result", result).register(meterRegistry).increment();
+    }
+
+    private record Entry(long version, String insights) {
+    }
+}
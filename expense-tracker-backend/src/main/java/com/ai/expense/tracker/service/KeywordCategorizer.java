@@ -0,0 +1,107 @@
+package com.ai.expense.tracker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rule-based categorizer used when AI is disabled or failing. The keyword dictionary comes from
+ * {@code app.categorization.keywords.<CATEGORY>} properties (falling back to the built-in rules)
+ * and, when enabled, from the {@code category_keywords} table, which is re-read periodically so
+ * new merchants can be added without a redeploy.
+ */
+@Component
+public class KeywordCategorizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeywordCategorizer.class);
+
+    public static final String DEFAULT_CATEGORY = "OTHER";
+
+    // Earlier entries win when a description matches keywords from several categories
+    private static final Map<String, String> DEFAULT_RULES = new LinkedHashMap<>();
+
+    static {
+        DEFAULT_RULES.put("FOOD", "food,grocery,restaurant");
+        DEFAULT_RULES.put("TRANSPORT", "bus,train,uber,taxi,gas,fuel");
+        DEFAULT_RULES.put("ENTERTAINMENT", "movie,netflix,game,concert,entertainment");
+        DEFAULT_RULES.put("BILLS", "bill,electric,water,rent,mortgage");
+        DEFAULT_RULES.put("HEALTH", "medical,doctor,hospital,pharmacy");
+        DEFAULT_RULES.put("SHOPPING", "shop,store,mall,amazon");
+    }
+
+    private static final String TABLE_QUERY = "SELECT keyword, category, priority FROM category_keywords";
+
+    private final List<KeywordMatcher.Keyword> configuredKeywords;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean tableEnabled;
+    private volatile KeywordMatcher matcher;
+
+    public KeywordCategorizer(Environment environment, JdbcTemplate jdbcTemplate,
+                              @Value("${app.categorization.keywords-table.enabled:false}") boolean tableEnabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tableEnabled = tableEnabled;
+        Map<String, String> rules = new LinkedHashMap<>(DEFAULT_RULES);
+        Binder.get(environment)
+                .bind("app.categorization.keywords", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of())
+                .forEach((category, keywords) -> rules.put(category.toUpperCase(), keywords));
+        this.configuredKeywords = toKeywords(rules);
+        this.matcher = KeywordMatcher.build(configuredKeywords, DEFAULT_CATEGORY);
+        if (tableEnabled) {
+            reload();
+        }
+    }
+
+    public String categorize(String description) {
+        return matcher.match(description);
+    }
+
+    /**
+     * Rebuilds the automaton from properties plus the keyword table. Table rows carry their own
+     * priority, where lower values win; property rules use their position (0, 1, 2, ...).
+     */
+    @Scheduled(fixedDelayString = "${app.categorization.keywords-table.refresh-ms:60000}",
+            initialDelayString = "${app.categorization.keywords-table.refresh-ms:60000}")
+    public void reload() {
+        if (!tableEnabled) {
+            return;
+        }
+        try {
+            List<KeywordMatcher.Keyword> keywords = new ArrayList<>(configuredKeywords);
+            jdbcTemplate.query(TABLE_QUERY, rs -> {
+                keywords.add(new KeywordMatcher.Keyword(
+                        rs.getString("keyword"), rs.getString("category").toUpperCase(), rs.getInt("priority")));
+            });
+            matcher = KeywordMatcher.build(keywords, DEFAULT_CATEGORY);
+            logger.debug("Rebuilt keyword categorizer with {} keywords", keywords.size());
+        } catch (Exception e) {
+            logger.warn("Could not load category_keywords table, keeping previous dictionary", e);
+        }
+    }
+
+    private static List<KeywordMatcher.Keyword> toKeywords(Map<String, String> rules) {
+        List<KeywordMatcher.Keyword> keywords = new ArrayList<>();
+        int priority = 0;
+        for (Map.Entry<String, String> rule : rules.entrySet()) {
+            String category = rule.getKey();
+            for (String keyword : rule.getValue().split(",")) {
+                if (!keyword.isBlank()) {
+                    keywords.add(new KeywordMatcher.Keyword(keyword.trim(), category, priority));
+                }
+            }
+            priority++;
+        }
+        return keywords;
+    }
+}
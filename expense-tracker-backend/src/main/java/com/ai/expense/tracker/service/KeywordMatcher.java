@@ -0,0 +1,181 @@
+package com.ai.expense.tracker.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeSet;
+
+/**
+ * Immutable Aho-Corasick automaton over a keyword dictionary. Failure links are folded into a
+ * dense transition table, so {@link #match} is a single case-insensitive pass over the input with
+ * one table lookup per character and no allocation. When several keywords occur, the one with the
+ * lowest priority value wins, mirroring the order of the old if/else chain.
+ */
+final class KeywordMatcher {
+
+    record Keyword(String text, String label, int priority) {
+    }
+
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private final char[] alphabet;      // sorted non-ASCII symbols, looked up by binary search
+    private final int[] asciiClass;     // ASCII char -> symbol class, -1 when not in any keyword
+    private final int asciiSize;        // non-ASCII classes start after the ASCII ones
+    private final int alphabetSize;
+    private final int[] transitions;    // state * alphabetSize + class -> next state
+    private final int[] bestPriority;   // best priority among keywords ending at this state
+    private final String[] bestLabel;
+    private final String defaultLabel;
+    private final int topPriority;
+
+    private KeywordMatcher(char[] alphabet, int[] asciiClass, int asciiSize, int alphabetSize, int[] transitions,
+                           int[] bestPriority, String[] bestLabel, String defaultLabel, int topPriority) {
+        this.alphabet = alphabet;
+        this.asciiClass = asciiClass;
+        this.asciiSize = asciiSize;
+        this.alphabetSize = alphabetSize;
+        this.transitions = transitions;
+        this.bestPriority = bestPriority;
+        this.bestLabel = bestLabel;
+        this.defaultLabel = defaultLabel;
+        this.topPriority = topPriority;
+    }
+
+    String match(CharSequence text) {
+        if (text == null) {
+            return defaultLabel;
+        }
+        int state = 0;
+        int best = NO_MATCH;
+        String label = defaultLabel;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            int cls = classOf(Character.toLowerCase(text.charAt(i)));
+            state = cls < 0 ? 0 : transitions[state * alphabetSize + cls];
+            int priority = bestPriority[state];
+            if (priority < best) {
+                best = priority;
+                label = bestLabel[state];
+                if (best == topPriority) {
+                    break; // nothing can beat the highest-priority keyword
+                }
+            }
+        }
+        return label;
+    }
+
+    private int classOf(char c) {
+        if (c < 128) {
+            return asciiClass[c];
+        }
+        int idx = Arrays.binarySearch(alphabet, c);
+        return idx < 0 ? -1 : asciiSize + idx;
+    }
+
+    static KeywordMatcher build(List<Keyword> keywords, String defaultLabel) {
+        // Symbol classes: used ASCII chars get dense slots, other chars are appended after them
+        TreeSet<Character> nonAscii = new TreeSet<>();
+        boolean[] asciiUsed = new boolean[128];
+        for (Keyword keyword : keywords) {
+            for (char c : keyword.text().toLowerCase().toCharArray()) {
+                if (c < 128) {
+                    asciiUsed[c] = true;
+                } else {
+                    nonAscii.add(c);
+                }
+            }
+        }
+        int[] asciiClass = new int[128];
+        Arrays.fill(asciiClass, -1);
+        int size = 0;
+        for (int c = 0; c < 128; c++) {
+            if (asciiUsed[c]) {
+                asciiClass[c] = size++;
+            }
+        }
+        char[] alphabet = new char[nonAscii.size()];
+        int k = 0;
+        for (char c : nonAscii) {
+            alphabet[k++] = c;
+        }
+        int asciiSize = size;
+        int alphabetSize = asciiSize + alphabet.length;
+
+        // Build the trie
+        List<Map<Integer, Integer>> children = new ArrayList<>();
+        List<Integer> priorities = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+        children.add(new HashMap<>());
+        priorities.add(NO_MATCH);
+        labels.add(null);
+        int topPriority = NO_MATCH;
+        for (Keyword keyword : keywords) {
+            String text = keyword.text().toLowerCase();
+            if (text.isEmpty()) {
+                continue;
+            }
+            int state = 0;
+            for (char c : text.toCharArray()) {
+                int cls = c < 128 ? asciiClass[c] : asciiSize + Arrays.binarySearch(alphabet, c);
+                Integer next = children.get(state).get(cls);
+                if (next == null) {
+                    next = children.size();
+                    children.add(new HashMap<>());
+                    priorities.add(NO_MATCH);
+                    labels.add(null);
+                    children.get(state).put(cls, next);
+                }
+                state = next;
+            }
+            if (keyword.priority() < priorities.get(state)) {
+                priorities.set(state, keyword.priority());
+                labels.set(state, keyword.label());
+            }
+            topPriority = Math.min(topPriority, keyword.priority());
+        }
+
+        // Breadth-first construction of failure links, folded into a full transition table
+        int states = children.size();
+        int[] transitions = new int[states * alphabetSize];
+        int[] fail = new int[states];
+        int[] bestPriority = new int[states];
+        String[] bestLabel = new String[states];
+        for (int s = 0; s < states; s++) {
+            bestPriority[s] = priorities.get(s);
+            bestLabel[s] = labels.get(s);
+        }
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int cls = 0; cls < alphabetSize; cls++) {
+            Integer next = children.get(0).get(cls);
+            if (next != null) {
+                transitions[cls] = next;
+                fail[next] = 0;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            if (bestPriority[fail[state]] < bestPriority[state]) {
+                bestPriority[state] = bestPriority[fail[state]];
+                bestLabel[state] = bestLabel[fail[state]];
+            }
+            for (int cls = 0; cls < alphabetSize; cls++) {
+                Integer next = children.get(state).get(cls);
+                int fallback = transitions[fail[state] * alphabetSize + cls];
+                if (next != null) {
+                    fail[next] = fallback;
+                    transitions[state * alphabetSize + cls] = next;
+                    queue.add(next);
+                } else {
+                    transitions[state * alphabetSize + cls] = fallback;
+                }
+            }
+        }
+
+        return new KeywordMatcher(alphabet, asciiClass, asciiSize, alphabetSize, transitions,
+                bestPriority, bestLabel, defaultLabel, topPriority);
+    }
+}
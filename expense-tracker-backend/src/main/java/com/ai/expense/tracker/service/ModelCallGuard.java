@@ -0,0 +1,173 @@
+package com.ai.expense.tracker.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Runs model calls under a per-operation latency budget, behind a circuit breaker and the model
+ * bulkhead ({@link ConcurrencyLimiter}). When the budget runs out the caller gets a
+ * {@link TimeoutException} straight away and uses its rule-based fallback; the model call is
+ * either cancelled or left to finish, in which case its late answer is handed to the caller's
+ * callback (e.g. to fill the categorization cache).
+ */
+@Component
+public class ModelCallGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelCallGuard.class);
+
+    public static final String CATEGORIZE = "categorize";
+    public static final String CATEGORIZE_BATCH = "categorize_batch";
+    public static final String INSIGHTS = "insights";
+
+    private final ConcurrencyLimiter bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final Map<String, Duration> budgets = new LinkedHashMap<>();
+    private final boolean cancelOnTimeout;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("model-call-", 0).factory());
+
+    public ModelCallGuard(@Qualifier("modelConcurrencyLimiter") ConcurrencyLimiter bulkhead, MeterRegistry meterRegistry,
+                          @Value("${app.ai.budget.categorize:1500ms}") Duration categorizeBudget,
+                          @Value("${app.ai.budget.categorize-batch:10s}") Duration batchBudget,
+                          @Value("${app.ai.budget.insights:5s}") Duration insightsBudget,
+                          @Value("${app.ai.budget.cancel-on-timeout:false}") boolean cancelOnTimeout,
+                          @Value("${app.ai.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                          @Value("${app.ai.circuit-breaker.open-duration:30s}") Duration openDuration) {
+        this.bulkhead = bulkhead;
+        this.meterRegistry = meterRegistry;
+        this.cancelOnTimeout = cancelOnTimeout;
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openDuration);
+        budgets.put(CATEGORIZE, categorizeBudget);
+        budgets.put(CATEGORIZE_BATCH, batchBudget);
+        budgets.put(INSIGHTS, insightsBudget);
+        Gauge.builder("expense.ai.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("0 = closed, 1 = half-open, 2 = open")
+                .register(meterRegistry);
+    }
+
+    public Duration budget(String operation) {
+        return budgets.getOrDefault(operation, budgets.get(CATEGORIZE));
+    }
+
+    /**
+     * Runs {@code modelCall} and waits at most the operation's budget for it. Throws
+     * {@link CircuitOpenException} or {@link RejectedExecutionException} without calling the model
+     * when the circuit is open or the bulkhead is full, {@link TimeoutException} when the budget
+     * runs out, and otherwise whatever the call itself threw.
+     */
+    public <T> T call(String operation, Callable<T> modelCall, Consumer<T> onLateResult) throws Exception {
+        if (!circuitBreaker.allowRequest()) {
+            counter("expense.ai.short.circuited", operation).increment();
+            throw new CircuitOpenException();
+        }
+        Duration budget = budget(operation);
+        long start = System.nanoTime();
+        if (!bulkhead.tryAcquire(budget)) {
+            circuitBreaker.onSkipped();
+            throw new RejectedExecutionException("Model concurrency limit reached");
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        // The permit goes back when the result settles; a task cancelled before it started never runs
+        // its own code, but cancelling the result below still settles it
+        result.whenComplete((value, failure) -> {
+            if (released.compareAndSet(false, true)) {
+                bulkhead.release();
+            }
+        });
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                try {
+                    result.complete(modelCall.call());
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            circuitBreaker.onSkipped();
+            result.cancel(false);
+            throw e;
+        }
+
+        try {
+            T value = result.get(Math.max(0, budget.toNanos() - (System.nanoTime() - start)), TimeUnit.NANOSECONDS);
+            circuitBreaker.onSuccess();
+            return value;
+        } catch (TimeoutException e) {
+            counter("expense.ai.budget.exceeded", operation).increment();
+            circuitBreaker.onFailure();
+            if (cancelOnTimeout) {
+                task.cancel(true);
+                result.cancel(false);
+            } else if (onLateResult != null) {
+                result.thenAccept(onLateResult).exceptionally(t -> {
+                    logger.debug("Late {} result could not be used", operation, t);
+                    return null;
+                });
+            }
+            throw new TimeoutException("Model " + operation + " exceeded its " + budget.toMillis() + " ms budget");
+        } catch (ExecutionException e) {
+            circuitBreaker.onFailure();
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("circuitState", circuitBreaker.getState().name());
+        stats.put("consecutiveFailures", circuitBreaker.getConsecutiveFailures());
+        stats.put("modelCallsInFlight", bulkhead.getInUse());
+        Map<String, Object> budgetMillis = new LinkedHashMap<>();
+        Map<String, Object> budgetMisses = new LinkedHashMap<>();
+        Map<String, Object> shortCircuited = new LinkedHashMap<>();
+        budgets.forEach((operation, budget) -> {
+            budgetMillis.put(operation, budget.toMillis());
+            budgetMisses.put(operation, (long) counter("expense.ai.budget.exceeded", operation).count());
+            shortCircuited.put(operation, (long) counter("expense.ai.short.circuited", operation).count());
+        });
+        stats.put("budgetMillis", budgetMillis);
+        stats.put("budgetMisses", budgetMisses);
+        stats.put("shortCircuited", shortCircuited);
+        return stats;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Counter counter(String name, String operation) {
+        return Counter.builder(name).tag("operation", operation).register(meterRegistry);
+    }
+
+    public static class CircuitOpenException extends RejectedExecutionException {
+        CircuitOpenException() {
+            super("Model circuit breaker is open");
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.ai.expense.tracker.service;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-request read routing state when read replicas are configured. Only threads with an open
+ * context (API requests) may read from a replica; background work always reads the primary. A
+ * context is pinned to the primary for a while after its client wrote, and remembers the lowest
+ * data version its replica reads are known to include so the response ETag never claims more.
+ */
+public final class ReadContext {
+
+    private static final ThreadLocal<ReadContext> CURRENT = new ThreadLocal<>();
+
+    private boolean primaryOnly;
+    private long servedVersion = Long.MAX_VALUE;
+
+    private ReadContext(boolean primaryOnly) {
+        this.primaryOnly = primaryOnly;
+    }
+
+    public static void open(boolean primaryOnly) {
+        CURRENT.set(new ReadContext(primaryOnly));
+    }
+
+    public static void close() {
+        CURRENT.remove();
+    }
+
+    public static boolean replicaAllowed() {
+        ReadContext context = CURRENT.get();
+        return context != null && !context.primaryOnly;
+    }
+
+    /**
+     * Records a read from a replica that has replayed every write up to {@code version}.
+     */
+    public static void servedFromReplica(long version) {
+        ReadContext context = CURRENT.get();
+        if (context != null) {
+            context.servedVersion = Math.min(context.servedVersion, version);
+        }
+    }
+
+    /**
+     * Lowest version covered by this request's replica reads, {@code Long.MAX_VALUE} if it has
+     * read only from the primary.
+     */
+    public static long servedVersion() {
+        ReadContext context = CURRENT.get();
+        return context == null ? Long.MAX_VALUE : context.servedVersion;
+    }
+
+    /**
+     * Runs {@code work} with replica reads disabled, for results that are cached against the
+     * current data version.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        ReadContext context = CURRENT.get();
+        if (context == null || context.primaryOnly) {
+            return work.get();
+        }
+        context.primaryOnly = true;
+        try {
+            return work.get();
+        } finally {
+            context.primaryOnly = false;
+        }
+    }
+}
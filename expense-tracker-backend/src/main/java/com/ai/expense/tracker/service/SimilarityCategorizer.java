@@ -0,0 +1,428 @@
+package com.ai.expense.tracker.service;
+
+import com.ai.expense.tracker.repository.ExpenseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Nearest-neighbour categorizer over descriptions that already have a category. Each description
+ * becomes a set of hashed features (character trigrams of every word plus the words themselves,
+ * digit runs collapsed so "UBER *TRIP 8F3K" and "Uber trip 27QX" look alike) and the k most
+ * cosine-similar examples vote, weighted by similarity. Candidates come from an inverted index,
+ * so a prediction touches only examples sharing a feature with the query.
+ * <p>
+ * Confident answers are used instead of the model. Everything the model answers is learned, and
+ * compared with what this categorizer would have said, which gives the agreement rate; a small
+ * audit share of confident predictions is still sent to the model to keep that rate honest.
+ */
+@Component
+public class SimilarityCategorizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimilarityCategorizer.class);
+
+    // Features in more postings than this say little about the category and would dominate the cost
+    private static final int MAX_POSTING_SCAN = 4096;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ExpenseRepository expenseRepository;
+    private final boolean enabled;
+    private final int mask;
+    private final int neighbours;
+    private final double minSimilarity;
+    private final double confidenceThreshold;
+    private final double auditRate;
+    private final int maxExamples;
+    private final int loadLimit;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> exampleIndex = new HashMap<>();
+    private int[][] exampleFeatures = new int[INITIAL_CAPACITY][];
+    private int[] exampleCategories = new int[INITIAL_CAPACITY];
+    private int exampleCount;
+    private final int[][] postings;
+    private final int[] postingSizes;
+    private final List<String> categoryNames = new ArrayList<>();
+    private final Map<String, Integer> categoryIndex = new HashMap<>();
+
+    private final Timer predictTimer;
+    private final Counter answered;
+    private final Counter audited;
+    private final Counter escalated;
+    private final Counter agreeConfident;
+    private final Counter disagreeConfident;
+    private final Counter agreeUncertain;
+    private final Counter disagreeUncertain;
+
+    public SimilarityCategorizer(ExpenseRepository expenseRepository, MeterRegistry meterRegistry,
+                                 @Value("${app.ai.similarity.enabled:true}") boolean enabled,
+                                 @Value("${app.ai.similarity.dimensions:262144}") int dimensions,
+                                 @Value("${app.ai.similarity.neighbours:5}") int neighbours,
+                                 @Value("${app.ai.similarity.min-similarity:0.6}") double minSimilarity,
+                                 @Value("${app.ai.similarity.confidence-threshold:0.8}") double confidenceThreshold,
+                                 @Value("${app.ai.similarity.audit-rate:0.02}") double auditRate,
+                                 @Value("${app.ai.similarity.max-examples:200000}") int maxExamples,
+                                 @Value("${app.ai.similarity.load-limit:100000}") int loadLimit) {
+        this.expenseRepository = expenseRepository;
+        this.enabled = enabled;
+        // Hashed feature space, rounded up to a power of two so a feature is hash & mask
+        int size = Integer.highestOneBit(Math.max(1024, dimensions - 1)) << 1;
+        this.mask = size - 1;
+        this.neighbours = Math.max(1, neighbours);
+        this.minSimilarity = minSimilarity;
+        this.confidenceThreshold = confidenceThreshold;
+        this.auditRate = auditRate;
+        this.maxExamples = maxExamples;
+        this.loadLimit = loadLimit;
+        this.postings = enabled ? new int[size][] : new int[0][];
+        this.postingSizes = enabled ? new int[size] : new int[0];
+
+        this.predictTimer = Timer.builder("expense.ai.similarity.predict").register(meterRegistry);
+        // answered replaced a model call; audited was confident but sent to the model anyway
+        this.answered = predictions(meterRegistry, "answered");
+        this.audited = predictions(meterRegistry, "audited");
+        this.escalated = predictions(meterRegistry, "escalated");
+        this.agreeConfident = agreement(meterRegistry, "high", "agree");
+        this.disagreeConfident = agreement(meterRegistry, "high", "disagree");
+        this.agreeUncertain = agreement(meterRegistry, "low", "agree");
+        this.disagreeUncertain = agreement(meterRegistry, "low", "disagree");
+        Gauge.builder("expense.ai.similarity.examples", this, SimilarityCategorizer::size).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public record Prediction(String category, double similarity, double confidence, boolean confident) {
+
+        static final Prediction NONE = new Prediction(null, 0, 0, false);
+    }
+
+    /**
+     * Returns the category to use without asking the model, or null when the prediction is not
+     * confident enough (or was picked for audit) and the model should decide.
+     */
+    public String answer(String description) {
+        if (!enabled) {
+            return null;
+        }
+        Prediction prediction = predict(description);
+        if (!prediction.confident()) {
+            escalated.increment();
+            return null;
+        }
+        if (auditRate > 0 && ThreadLocalRandom.current().nextDouble() < auditRate) {
+            audited.increment();
+            return null;
+        }
+        answered.increment();
+        return prediction.category();
+    }
+
+    /**
+     * Adds a model answer as an example, first scoring what this categorizer would have predicted.
+     * A description seen before takes the newer category.
+     */
+    public void learn(String description, String category) {
+        if (!enabled || category == null || CategorizationWorker.PENDING.equals(category)) {
+            return;
+        }
+        Prediction prediction = predict(description);
+        if (prediction.category() != null) {
+            boolean agrees = prediction.category().equals(category);
+            if (prediction.confident()) {
+                (agrees ? agreeConfident : disagreeConfident).increment();
+            } else {
+                (agrees ? agreeUncertain : disagreeUncertain).increment();
+            }
+        }
+        add(description, category, true);
+    }
+
+    public Prediction predict(String description) {
+        if (!enabled) {
+            return Prediction.NONE;
+        }
+        long started = System.nanoTime();
+        int[] query = features(key(description));
+        if (query.length == 0) {
+            return Prediction.NONE;
+        }
+        lock.readLock().lock();
+        try {
+            if (exampleCount == 0) {
+                return Prediction.NONE;
+            }
+            int total = 0;
+            for (int feature : query) {
+                int postingSize = postingSizes[feature];
+                if (postingSize <= MAX_POSTING_SCAN) {
+                    total += postingSize;
+                }
+            }
+            if (total == 0) {
+                return Prediction.NONE;
+            }
+            // Every occurrence of an example in the query's postings is one shared feature
+            int[] hits = new int[total];
+            int filled = 0;
+            for (int feature : query) {
+                int postingSize = postingSizes[feature];
+                if (postingSize > 0 && postingSize <= MAX_POSTING_SCAN) {
+                    System.arraycopy(postings[feature], 0, hits, filled, postingSize);
+                    filled += postingSize;
+                }
+            }
+            Arrays.sort(hits);
+
+            int[] topExamples = new int[neighbours];
+            double[] topSimilarities = new double[neighbours];
+            int found = 0;
+            for (int i = 0; i < hits.length; ) {
+                int example = hits[i];
+                int shared = 0;
+                while (i < hits.length && hits[i] == example) {
+                    shared++;
+                    i++;
+                }
+                double similarity = shared / Math.sqrt((double) query.length * exampleFeatures[example].length);
+                if (found < neighbours || similarity > topSimilarities[found - 1]) {
+                    int slot = Math.min(found, neighbours - 1);
+                    while (slot > 0 && topSimilarities[slot - 1] < similarity) {
+                        topSimilarities[slot] = topSimilarities[slot - 1];
+                        topExamples[slot] = topExamples[slot - 1];
+                        slot--;
+                    }
+                    topSimilarities[slot] = similarity;
+                    topExamples[slot] = example;
+                    found = Math.min(found + 1, neighbours);
+                }
+            }
+
+            double[] votes = new double[categoryNames.size()];
+            double totalVotes = 0;
+            for (int i = 0; i < found; i++) {
+                votes[exampleCategories[topExamples[i]]] += topSimilarities[i];
+                totalVotes += topSimilarities[i];
+            }
+            int winner = 0;
+            for (int category = 1; category < votes.length; category++) {
+                if (votes[category] > votes[winner]) {
+                    winner = category;
+                }
+            }
+            double confidence = votes[winner] / totalVotes;
+            boolean confident = topSimilarities[0] >= minSimilarity && confidence >= confidenceThreshold;
+            return new Prediction(categoryNames.get(winner), topSimilarities[0], confidence, confident);
+        } finally {
+            lock.readLock().unlock();
+            predictTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Learns from the most recent categorized expenses so a fresh instance can answer from the
+     * start. Rows are newest first, so each description keeps its latest category.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled || loadLimit <= 0) {
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            List<Object[]> rows = expenseRepository.findRecentCategorizations(Limit.of(loadLimit));
+            for (Object[] row : rows) {
+                String category = (String) row[1];
+                if (category != null && !CategorizationWorker.PENDING.equals(category)) {
+                    add((String) row[0], category, false);
+                }
+            }
+            logger.info("Loaded {} distinct descriptions from {} rows into the similarity categorizer in {} ms",
+                    size(), rows.size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (Exception e) {
+            logger.warn("Could not load the similarity categorizer; every cache miss goes to the model", e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("examples", size());
+        result.put("answered", (long) answered.count());
+        result.put("audited", (long) audited.count());
+        result.put("escalated", (long) escalated.count());
+        result.put("llmAvoidanceRate", rate(answered.count(), audited.count() + escalated.count()));
+        result.put("agreementConfident", rate(agreeConfident.count(), disagreeConfident.count()));
+        result.put("agreementUncertain", rate(agreeUncertain.count(), disagreeUncertain.count()));
+        result.put("predictMeanMicros", predictTimer.mean(TimeUnit.MICROSECONDS));
+        return result;
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return exampleCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(String description, String category, boolean replace) {
+        String key = key(description);
+        if (key.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Integer existing = exampleIndex.get(key);
+            if (existing != null) {
+                if (replace) {
+                    exampleCategories[existing] = categoryId(category);
+                }
+                return;
+            }
+            if (exampleCount >= maxExamples) {
+                return;
+            }
+            int[] features = features(key);
+            if (features.length == 0) {
+                return;
+            }
+            if (exampleCount == exampleFeatures.length) {
+                int capacity = exampleCount * 2;
+                exampleFeatures = Arrays.copyOf(exampleFeatures, capacity);
+                exampleCategories = Arrays.copyOf(exampleCategories, capacity);
+            }
+            int example = exampleCount++;
+            exampleFeatures[example] = features;
+            exampleCategories[example] = categoryId(category);
+            exampleIndex.put(key, example);
+            for (int feature : features) {
+                int[] posting = postings[feature];
+                int postingSize = postingSizes[feature];
+                if (posting == null) {
+                    posting = new int[4];
+                } else if (postingSize == posting.length) {
+                    posting = Arrays.copyOf(posting, postingSize * 2);
+                }
+                posting[postingSize] = example;
+                postings[feature] = posting;
+                postingSizes[feature] = postingSize + 1;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int categoryId(String category) {
+        Integer id = categoryIndex.get(category);
+        if (id == null) {
+            id = categoryNames.size();
+            categoryNames.add(category);
+            categoryIndex.put(category, id);
+        }
+        return id;
+    }
+
+    // Normalized description with each run of digits reduced to one 0: store and trip numbers are noise
+    static String key(String description) {
+        String normalized = CategorizationCache.normalize(description);
+        StringBuilder key = new StringBuilder(normalized.length());
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.isDigit(c)) {
+                if (key.isEmpty() || key.charAt(key.length() - 1) != '0') {
+                    key.append('0');
+                }
+            } else {
+                key.append(c);
+            }
+        }
+        return key.toString();
+    }
+
+    // Sorted, distinct feature ids of a key: every word, and the trigrams of each word padded with spaces
+    private int[] features(String key) {
+        if (key.isEmpty()) {
+            return new int[0];
+        }
+        int[] features = new int[key.length() * 2 + 1];
+        int count = 0;
+        int wordStart = 0;
+        for (int end = 0; end <= key.length(); end++) {
+            if (end < key.length() && key.charAt(end) != ' ') {
+                continue;
+            }
+            int length = end - wordStart;
+            int wordHash = 0x5bd1e995;
+            for (int i = wordStart; i < end; i++) {
+                wordHash = wordHash * 31 + key.charAt(i);
+            }
+            features[count++] = mix(wordHash) & mask;
+            for (int p = 2; p <= length + 1; p++) {
+                int trigram = (padded(key, wordStart, length, p - 2) * 31 + padded(key, wordStart, length, p - 1)) * 31
+                        + padded(key, wordStart, length, p);
+                features[count++] = mix(trigram) & mask;
+            }
+            wordStart = end + 1;
+        }
+        int[] sorted = Arrays.copyOf(features, count);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[distinct - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, distinct);
+    }
+
+    private static char padded(String key, int wordStart, int length, int position) {
+        return position == 0 || position > length ? ' ' : key.charAt(wordStart + position - 1);
+    }
+
+    // Murmur3 finalizer, so neighbouring trigram codes spread over the whole table
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static double rate(double hits, double misses) {
+        return hits + misses == 0 ? 0 : hits / (hits + misses);
+    }
+
+    private static Counter predictions(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("expense.ai.similarity.predictions").tag("outcome", outcome).register(meterRegistry);
+    }
+
+    // Whether the local prediction matched the model's answer, split by whether it was confident
+    private static Counter agreement(MeterRegistry meterRegistry, String confidence, String outcome) {
+        return Counter.builder("expense.ai.similarity.agreement")
+                .tag("confidence", confidence)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
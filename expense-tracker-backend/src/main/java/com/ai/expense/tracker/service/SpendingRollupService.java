@@ -0,0 +1,224 @@
+package com.ai.expense.tracker.service;
+
+import com.ai.expense.tracker.dto.SpendingSummary;
+import com.ai.expense.tracker.model.ExpenseRollup;
+import com.ai.expense.tracker.repository.ExpenseRepository;
+import com.ai.expense.tracker.repository.ExpenseRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains per-category and per-month running aggregates (count, sum, min, max) in
+ * {@code expense_rollups}. Every expense write calls into this service inside its own transaction,
+ * so insights and summaries can be computed from a handful of rows regardless of table size.
+ */
+@Service
+public class SpendingRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpendingRollupService.class);
+
+    private final ExpenseRollupRepository rollupRepository;
+    private final ExpenseRepository expenseRepository;
+    private final DataVersion dataVersion;
+    private final String rebuildOnStartup;
+    private final Set<String> knownBuckets = ConcurrentHashMap.newKeySet();
+
+    public SpendingRollupService(ExpenseRollupRepository rollupRepository, ExpenseRepository expenseRepository,
+                                 DataVersion dataVersion,
+                                 @Value("${app.rollups.rebuild-on-startup:always}") String rebuildOnStartup) {
+        this.rollupRepository = rollupRepository;
+        this.expenseRepository = expenseRepository;
+        this.dataVersion = dataVersion;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    @Transactional
+    public void recordCreate(LocalDateTime date, String category, BigDecimal amount) {
+        add(ExpenseRollup.CATEGORY, category, 1, amount, amount, amount);
+        add(ExpenseRollup.MONTH, monthKey(date), 1, amount, amount, amount);
+    }
+
+    /**
+     * Applies a batch of new expenses with one UPDATE per touched bucket.
+     */
+    @Transactional
+    public void recordCreates(List<LocalDateTime> dates, List<String> categories, List<BigDecimal> amounts) {
+        Map<String, Delta> deltas = new HashMap<>();
+        for (int i = 0; i < amounts.size(); i++) {
+            BigDecimal amount = amounts.get(i);
+            deltas.computeIfAbsent(ExpenseRollup.CATEGORY + "\u0000" + categories.get(i), k -> new Delta()).add(amount);
+            deltas.computeIfAbsent(ExpenseRollup.MONTH + "\u0000" + monthKey(dates.get(i)), k -> new Delta()).add(amount);
+        }
+        deltas.forEach((key, delta) -> {
+            int sep = key.indexOf('\u0000');
+            add(key.substring(0, sep), key.substring(sep + 1), delta.count, delta.sum, delta.min, delta.max);
+        });
+    }
+
+    /**
+     * Must be called after the expense row has been deleted in the same transaction. Count and sum
+     * are adjusted in place; min/max are only re-derived when the deleted amount was an extreme.
+     */
+    @Transactional
+    public void recordDelete(LocalDateTime date, String category, BigDecimal amount) {
+        remove(ExpenseRollup.CATEGORY, category, amount);
+        remove(ExpenseRollup.MONTH, monthKey(date), amount);
+    }
+
+    @Transactional
+    public void recordRecategorize(LocalDateTime date, String fromCategory, String toCategory, BigDecimal amount) {
+        if (fromCategory.equals(toCategory)) {
+            return;
+        }
+        remove(ExpenseRollup.CATEGORY, fromCategory, amount);
+        add(ExpenseRollup.CATEGORY, toCategory, 1, amount, amount, amount);
+    }
+
+    @Transactional(readOnly = true)
+    public SpendingSummary getSummary() {
+        long totalCount = 0;
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        Map<String, SpendingSummary.BucketStats> byCategory = new HashMap<>();
+        Map<String, SpendingSummary.BucketStats> byMonth = new TreeMap<>();
+        for (ExpenseRollup rollup : rollupRepository.findAll()) {
+            if (rollup.getCount() <= 0) {
+                continue;
+            }
+            SpendingSummary.BucketStats stats = new SpendingSummary.BucketStats(
+                    rollup.getCount(), rollup.getTotal(), rollup.getMinAmount(), rollup.getMaxAmount());
+            if (ExpenseRollup.CATEGORY.equals(rollup.getDimension())) {
+                byCategory.put(rollup.getBucketKey(), stats);
+                totalCount += rollup.getCount();
+                totalAmount = totalAmount.add(rollup.getTotal());
+            } else {
+                byMonth.put(rollup.getBucketKey(), stats);
+            }
+        }
+        return new SpendingSummary(totalCount, totalAmount, byCategory, byMonth);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildOnStartup() {
+        if ("never".equalsIgnoreCase(rebuildOnStartup)) {
+            return;
+        }
+        if ("if-empty".equalsIgnoreCase(rebuildOnStartup) && rollupRepository.count() > 0) {
+            return;
+        }
+        rebuild();
+    }
+
+    /**
+     * Recomputes every bucket from {@code expenses}. This is the only O(table) operation and runs
+     * at startup, since rows inserted outside the service (e.g. by data.sql) bypass the rollups.
+     */
+    @Transactional
+    public void rebuild() {
+        rollupRepository.deleteAllInBatch();
+        knownBuckets.clear();
+        for (Object[] row : expenseRepository.aggregateByCategory()) {
+            save(ExpenseRollup.CATEGORY, (String) row[0], row);
+        }
+        for (Object[] row : expenseRepository.aggregateByMonth()) {
+            String month = YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue()).toString();
+            save(ExpenseRollup.MONTH, month, Arrays.copyOfRange(row, 1, row.length));
+        }
+        dataVersion.bump();
+        logger.info("Rebuilt expense rollups ({} buckets)", rollupRepository.count());
+    }
+
+    // row = [key, count, sum, min, max]
+    private void save(String dimension, String key, Object[] row) {
+        ExpenseRollup rollup = new ExpenseRollup(dimension, key);
+        rollup.setCount(((Number) row[1]).longValue());
+        rollup.setTotal(toBigDecimal(row[2]));
+        rollup.setMinAmount(toBigDecimal(row[3]));
+        rollup.setMaxAmount(toBigDecimal(row[4]));
+        rollupRepository.save(rollup);
+        knownBuckets.add(rollup.getBucket());
+    }
+
+    private void add(String dimension, String key, long count, BigDecimal sum, BigDecimal min, BigDecimal max) {
+        String bucket = ExpenseRollup.bucketId(dimension, key);
+        ensureBucket(dimension, key, bucket);
+        rollupRepository.add(bucket, count, sum, min, max);
+    }
+
+    private void remove(String dimension, String key, BigDecimal amount) {
+        String bucket = ExpenseRollup.bucketId(dimension, key);
+        ExpenseRollup rollup = rollupRepository.findById(bucket).orElse(null);
+        if (rollup == null) {
+            return;
+        }
+        rollupRepository.subtract(bucket, 1, amount);
+        boolean wasExtreme = (rollup.getMinAmount() != null && amount.compareTo(rollup.getMinAmount()) <= 0)
+                || (rollup.getMaxAmount() != null && amount.compareTo(rollup.getMaxAmount()) >= 0);
+        if (wasExtreme) {
+            List<Object[]> bounds = ExpenseRollup.CATEGORY.equals(dimension)
+                    ? expenseRepository.findAmountBoundsForCategory(key)
+                    : expenseRepository.findAmountBoundsBetween(
+                            YearMonth.parse(key).atDay(1).atStartOfDay(),
+                            YearMonth.parse(key).plusMonths(1).atDay(1).atStartOfDay());
+            Object[] row = bounds.isEmpty() ? new Object[2] : bounds.get(0);
+            rollupRepository.setBounds(bucket, toBigDecimal(row[0]), toBigDecimal(row[1]));
+        }
+    }
+
+    /**
+     * Creates an empty bucket row in the caller's transaction, so no second connection is needed
+     * while the first is held. A concurrent creator's row simply wins. The bucket only counts as
+     * known once the insert has committed; after a rollback it is created again next time.
+     */
+    private void ensureBucket(String dimension, String key, String bucket) {
+        if (knownBuckets.contains(bucket)) {
+            return;
+        }
+        rollupRepository.createIfAbsent(bucket, dimension, key);
+        AfterCommit.run(() -> knownBuckets.add(bucket));
+    }
+
+    private static String monthKey(LocalDateTime date) {
+        return YearMonth.from(date).toString();
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        return new BigDecimal(value.toString());
+    }
+
+    private static final class Delta {
+        private long count;
+        private BigDecimal sum = BigDecimal.ZERO;
+        private BigDecimal min;
+        private BigDecimal max;
+
+        void add(BigDecimal amount) {
+            count++;
+            sum = sum.add(amount);
+            min = min == null || amount.compareTo(min) < 0 ? amount : min;
+            max = max == null || amount.compareTo(max) > 0 ? amount : max;
+        }
+    }
+}
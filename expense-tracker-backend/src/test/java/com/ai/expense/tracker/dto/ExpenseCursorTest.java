@@ -0,0 +1,56 @@
+package com.ai.expense.tracker.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpenseCursorTest {
+
+    @Test
+    void roundTripsThroughItsToken() {
+        ExpenseCursor cursor = new ExpenseCursor(LocalDateTime.of(2026, 3, 4, 5, 6, 7, 123_456_789), 42L);
+
+        String token = cursor.encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), "token is not URL-safe: " + token);
+        assertEquals(cursor, ExpenseCursor.decode(token));
+        assertEquals(0, ExpenseCursor.decode(token).rank());
+    }
+
+    @Test
+    void roundTripsDatesWithoutSecondsAndLargeIds() {
+        ExpenseCursor cursor = new ExpenseCursor(LocalDateTime.of(2026, 1, 1, 0, 0), Long.MAX_VALUE);
+
+        assertEquals(cursor, ExpenseCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void rejectsTokensThatAreNotBase64() {
+        assertThrows(IllegalArgumentException.class, () -> ExpenseCursor.decode("not a cursor!"));
+    }
+
+    @Test
+    void rejectsTokensWithTheWrongNumberOfParts() {
+        assertThrows(IllegalArgumentException.class, () -> ExpenseCursor.decode(token("2026-01-01T10:00|5")));
+        assertThrows(IllegalArgumentException.class, () -> ExpenseCursor.decode(token("0|2026-01-01T10:00|5|6")));
+        assertThrows(IllegalArgumentException.class, () -> ExpenseCursor.decode(token("0|2026-01-01T10:00|")));
+        assertThrows(IllegalArgumentException.class, () -> ExpenseCursor.decode(token("")));
+    }
+
+    @Test
+    void rejectsTokensWithUnparseableParts() {
+        assertThrows(IllegalArgumentException.class, () -> ExpenseCursor.decode(token("x|2026-01-01T10:00|5")));
+        assertThrows(IllegalArgumentException.class, () -> ExpenseCursor.decode(token("0|yesterday|5")));
+        assertThrows(IllegalArgumentException.class, () -> ExpenseCursor.decode(token("0|2026-01-01T10:00|null")));
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,52 @@
+package com.ai.expense.tracker.repository;
+
+import com.ai.expense.tracker.model.ExpenseRollup;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the rollup queries against the test datasource itself (H2 in PostgreSQL mode) rather than
+ * a replacement embedded database, so the native upsert is checked with the test profile's URL.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ExpenseRollupRepositoryTest {
+
+    @Autowired
+    private ExpenseRollupRepository rollupRepository;
+
+    @Test
+    void createIfAbsentCreatesAnEmptyBucketOnce() {
+        String bucket = ExpenseRollup.bucketId(ExpenseRollup.CATEGORY, "FOOD");
+
+        assertEquals(1, rollupRepository.createIfAbsent(bucket, ExpenseRollup.CATEGORY, "FOOD"));
+        assertEquals(0, rollupRepository.createIfAbsent(bucket, ExpenseRollup.CATEGORY, "FOOD"));
+
+        ExpenseRollup rollup = rollupRepository.findById(bucket).orElseThrow();
+        assertEquals(0, rollup.getCount());
+        assertEquals(0, BigDecimal.ZERO.compareTo(rollup.getTotal()));
+    }
+
+    @Test
+    void addAccumulatesIntoACreatedBucket() {
+        String bucket = ExpenseRollup.bucketId(ExpenseRollup.MONTH, "2026-01");
+        rollupRepository.createIfAbsent(bucket, ExpenseRollup.MONTH, "2026-01");
+
+        rollupRepository.add(bucket, 1, new BigDecimal("12.50"), new BigDecimal("12.50"), new BigDecimal("12.50"));
+        rollupRepository.add(bucket, 2, new BigDecimal("7.50"), new BigDecimal("2.50"), new BigDecimal("5.00"));
+        // A second create leaves the accumulated values alone
+        rollupRepository.createIfAbsent(bucket, ExpenseRollup.MONTH, "2026-01");
+
+        ExpenseRollup rollup = rollupRepository.findById(bucket).orElseThrow();
+        assertEquals(3, rollup.getCount());
+        assertEquals(0, new BigDecimal("20.00").compareTo(rollup.getTotal()));
+        assertEquals(0, new BigDecimal("2.50").compareTo(rollup.getMinAmount()));
+        assertEquals(0, new BigDecimal("12.50").compareTo(rollup.getMaxAmount()));
+    }
+}
@@ -0,0 +1,102 @@
+package com.ai.expense.tracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExpenseImportServiceCsvTest {
+
+    @Test
+    void splitsPlainFields() {
+        assertEquals(List.of("Coffee", "4.50", "2026-01-01T10:00"),
+                ExpenseImportService.splitCsvLine("Coffee,4.50,2026-01-01T10:00"));
+    }
+
+    @Test
+    void keepsCommasInsideQuotedFields() {
+        assertEquals(List.of("Dinner, drinks", "42.00"),
+                ExpenseImportService.splitCsvLine("\"Dinner, drinks\",42.00"));
+    }
+
+    @Test
+    void unescapesDoubledQuotes() {
+        assertEquals(List.of("The \"Good\" Cafe", "12"),
+                ExpenseImportService.splitCsvLine("\"The \"\"Good\"\" Cafe\",12"));
+        assertEquals(List.of("\"", "1"), ExpenseImportService.splitCsvLine("\"\"\"\",1"));
+    }
+
+    @Test
+    void keepsEmptyFields() {
+        assertEquals(List.of("Taxi", "", ""), ExpenseImportService.splitCsvLine("Taxi,,"));
+        assertEquals(List.of("", "5"), ExpenseImportService.splitCsvLine("\"\",5"));
+        assertEquals(List.of(""), ExpenseImportService.splitCsvLine(""));
+    }
+
+    @Test
+    void unterminatedQuoteRunsToTheEndOfTheLine() {
+        assertEquals(List.of("Lunch, 5"), ExpenseImportService.splitCsvLine("\"Lunch, 5"));
+    }
+
+    @Test
+    void quotedFieldKeepsEmbeddedNewlinesAndQuotes() throws IOException {
+        BufferedReader reader = new BufferedReader(new StringReader(
+                "description,amount\n"
+                        + "\"Dinner at \"\"Luigi's\"\",\nwith the team\",42.00\r\n"
+                        + "Taxi,12\n"));
+
+        assertEquals("description,amount", ExpenseImportService.readCsvRecord(reader));
+        String record = ExpenseImportService.readCsvRecord(reader);
+        assertEquals(List.of("Dinner at \"Luigi's\",\nwith the team", "42.00"),
+                ExpenseImportService.splitCsvLine(record));
+        assertEquals(List.of("Taxi", "12"), ExpenseImportService.splitCsvLine(ExpenseImportService.readCsvRecord(reader)));
+        assertNull(ExpenseImportService.readCsvRecord(reader));
+    }
+
+    @Test
+    void escapedQuoteAtALineEndDoesNotOpenAField() throws IOException {
+        BufferedReader reader = new BufferedReader(new StringReader("\"Say \"\"hi\"\"\",1\nLunch,5\n"));
+
+        assertEquals(List.of("Say \"hi\"", "1"), ExpenseImportService.splitCsvLine(ExpenseImportService.readCsvRecord(reader)));
+        assertEquals("Lunch,5", ExpenseImportService.readCsvRecord(reader));
+    }
+
+    @Test
+    void unterminatedQuoteRunsToTheEndOfTheInput() throws IOException {
+        BufferedReader reader = new BufferedReader(new StringReader("\"Lunch,5\nTaxi,12\n"));
+
+        assertEquals(List.of("Lunch,5\nTaxi,12"), ExpenseImportService.splitCsvLine(ExpenseImportService.readCsvRecord(reader)));
+        assertNull(ExpenseImportService.readCsvRecord(reader));
+    }
+
+    @Test
+    void mapsHeaderColumnsByNameInAnyOrder() {
+        Map<String, Integer> columns = ExpenseImportService.headerColumns("\uFEFFDate, Amount ,\"Description\",Notes");
+
+        assertEquals(0, columns.get("date"));
+        assertEquals(1, columns.get("amount"));
+        assertEquals(2, columns.get("description"));
+    }
+
+    @Test
+    void firstOfRepeatedHeaderColumnsWins() {
+        Map<String, Integer> columns = ExpenseImportService.headerColumns("amount,description,amount");
+
+        assertEquals(0, columns.get("amount"));
+        assertFalse(columns.containsKey("date"));
+    }
+
+    @Test
+    void rejectsHeaderWithoutRequiredColumns() {
+        assertThrows(IllegalArgumentException.class, () -> ExpenseImportService.headerColumns("description,date"));
+        assertThrows(IllegalArgumentException.class, () -> ExpenseImportService.headerColumns("Coffee,4.50"));
+    }
+}
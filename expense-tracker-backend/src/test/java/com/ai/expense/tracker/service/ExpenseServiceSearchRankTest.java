@@ -0,0 +1,40 @@
+package com.ai.expense.tracker.service;
+
+import com.ai.expense.tracker.dto.ExpenseCursor;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ExpenseServiceSearchRankTest {
+
+    @Test
+    void prefixMatchesRankFirst() {
+        assertEquals(0, ExpenseService.searchRank("Coffee beans", "coffee"));
+        assertEquals(0, ExpenseService.searchRank("coffee", "coffee"));
+    }
+
+    @Test
+    void wordPrefixMatchesRankSecond() {
+        assertEquals(1, ExpenseService.searchRank("Morning coffee", "coffee"));
+        assertEquals(1, ExpenseService.searchRank("Iced coffee with COFFEE cake", "coffee"));
+    }
+
+    @Test
+    void otherMatchesRankLast() {
+        assertEquals(2, ExpenseService.searchRank("Iced-coffee", "coffee"));
+        assertEquals(2, ExpenseService.searchRank("Decoffeinated", "coffee"));
+    }
+
+    @Test
+    void rankedCursorRoundTripsSoTheNextPageResumesInTheSameTier() {
+        ExpenseCursor cursor = new ExpenseCursor(
+                ExpenseService.searchRank("Morning coffee", "coffee"), LocalDateTime.of(2026, 5, 1, 8, 30), 7L);
+
+        ExpenseCursor decoded = ExpenseCursor.decode(cursor.encode());
+
+        assertEquals(1, decoded.rank());
+        assertEquals(cursor, decoded);
+    }
+}
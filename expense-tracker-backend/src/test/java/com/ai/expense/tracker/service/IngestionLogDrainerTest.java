@@ -0,0 +1,260 @@
+package com.ai.expense.tracker.service;
+
+import com.ai.expense.tracker.dto.ExpenseRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the drainer against a real log and an H2 database. The import service is mocked to insert
+ * into a stand-in table through the same {@link JdbcTemplate}, so it takes part in the drainer's
+ * transaction exactly like the real bulk insert.
+ */
+class IngestionLogDrainerTest {
+
+    private static final String LOG_NAME = "test";
+
+    @TempDir
+    Path directory;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private final ExpenseImportService importService = mock(ExpenseImportService.class);
+    private final AIExpenseService aiExpenseService = mock(AIExpenseService.class);
+    private final ExpenseColumnStore columnStore = mock(ExpenseColumnStore.class);
+    private final List<IngestionLog> logs = new ArrayList<>();
+    private final List<IngestionLogDrainer> drainers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute("CREATE TABLE ingest_log_offsets (log_name VARCHAR(100) PRIMARY KEY, "
+                + "committed_offset BIGINT NOT NULL, updated_at TIMESTAMP(6) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE ingest_log_dead_letters (log_name VARCHAR(100) NOT NULL, "
+                + "log_offset BIGINT NOT NULL, description TEXT NOT NULL, amount DOUBLE PRECISION NOT NULL, "
+                + "expense_date TIMESTAMP(6) NOT NULL, received_at TIMESTAMP(6) NOT NULL, error TEXT NOT NULL, "
+                + "failed_at TIMESTAMP(6) NOT NULL, PRIMARY KEY (log_name, log_offset))");
+        // Narrow description column so a test can make the database reject one entry
+        jdbcTemplate.execute("CREATE TABLE expenses (description VARCHAR(20) NOT NULL, amount NUMERIC(10,2) NOT NULL)");
+
+        doAnswer(invocation -> {
+            insertRows(invocation.getArgument(0));
+            return null;
+        }).when(importService).insertBatch(anyList(), anyList());
+        when(aiExpenseService.categorizeExpenses(anyList()))
+                .thenAnswer(invocation -> Collections.nCopies(invocation.<List<?>>getArgument(0).size(), "OTHER"));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (IngestionLogDrainer drainer : drainers) {
+            drainer.stop();
+        }
+        for (IngestionLog log : logs) {
+            log.close();
+        }
+    }
+
+    @Test
+    void appliesEveryEntryAndStoresTheOffset() throws Exception {
+        IngestionLog log = openLog();
+        long end = append(log, "coffee", "lunch", "taxi");
+
+        startDrainer(log);
+        waitUntil(() -> storedOffset() == end);
+
+        assertEquals(3, expenseCount());
+        assertEquals(0L, log.getStats().get("lagEntries"));
+    }
+
+    @Test
+    void restartResumesFromTheStoredOffset() throws Exception {
+        IngestionLog log = openLog();
+        long end = append(log, "coffee", "lunch");
+        IngestionLogDrainer first = startDrainer(log);
+        waitUntil(() -> storedOffset() == end);
+        first.stop();
+        log.close();
+
+        IngestionLog reopened = openLog();
+        long newEnd = append(reopened, "taxi");
+        startDrainer(reopened);
+        waitUntil(() -> storedOffset() == newEnd);
+
+        // Only the new entry is inserted; the two applied before the restart are not replayed
+        assertEquals(3, expenseCount());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM expenses WHERE description = 'coffee'", Integer.class));
+    }
+
+    @Test
+    void failedBatchIsRolledBackAndAppliedOnce() throws Exception {
+        IngestionLog log = openLog();
+        long end = append(log, "coffee", "lunch");
+        // The rows are inserted, then the transaction fails before the offset moves
+        doAnswer(invocation -> {
+            insertRows(invocation.getArgument(0));
+            throw new TransientDataAccessResourceException("connection reset");
+        }).doAnswer(invocation -> {
+            insertRows(invocation.getArgument(0));
+            return null;
+        }).when(importService).insertBatch(anyList(), anyList());
+
+        startDrainer(log);
+        waitUntil(() -> storedOffset() == end);
+
+        assertEquals(2, expenseCount());
+        verify(importService, times(2)).insertBatch(anyList(), anyList());
+    }
+
+    @Test
+    void errorAfterCommitDoesNotReapplyTheBatch() throws Exception {
+        IngestionLog log = openLog();
+        long end = append(log, "coffee", "lunch");
+        // The batch has committed by the time the column store catches up
+        doThrow(new IllegalStateException("column store unavailable")).doNothing().when(columnStore).catchUp(anyLong());
+
+        startDrainer(log);
+        waitUntil(() -> storedOffset() == end);
+        // Still drained after the backoff, without inserting the committed batch again
+        long newEnd = append(log, "taxi");
+        waitUntil(() -> storedOffset() == newEnd);
+
+        assertEquals(3, expenseCount());
+        verify(importService, times(2)).insertBatch(anyList(), anyList());
+    }
+
+    @Test
+    void rejectedEntryIsDeadLetteredAndTheRestApplied() throws Exception {
+        IngestionLog log = openLog();
+        long first = append(log, "coffee");
+        append(log, "a description longer than the column allows");
+        long end = append(log, "lunch");
+
+        startDrainer(log);
+        waitUntil(() -> storedOffset() == end);
+
+        assertEquals(List.of("coffee", "lunch"),
+                jdbcTemplate.queryForList("SELECT description FROM expenses ORDER BY description", String.class));
+        assertEquals(List.of(first), jdbcTemplate.queryForList(
+                "SELECT log_offset FROM ingest_log_dead_letters WHERE log_name = ?", Long.class, LOG_NAME));
+        assertEquals(0L, log.getStats().get("lagEntries"));
+    }
+
+    @Test
+    void categorizesARejectedBatchOnlyOnce() throws Exception {
+        IngestionLog log = openLog();
+        append(log, "coffee");
+        long end = append(log, "a description longer than the column allows", "lunch");
+
+        startDrainer(log);
+        waitUntil(() -> storedOffset() == end);
+
+        // The per-entry retry reuses the batch's categories
+        verify(aiExpenseService, times(1)).categorizeExpenses(anyList());
+        assertEquals(2, expenseCount());
+    }
+
+    @Test
+    void refusesToStartWhenTheStoredOffsetIsOutsideTheLog() throws Exception {
+        IngestionLog log = openLog();
+        long end = append(log, "coffee");
+        jdbcTemplate.update("INSERT INTO ingest_log_offsets (log_name, committed_offset, updated_at) "
+                + "VALUES (?, ?, CURRENT_TIMESTAMP)", LOG_NAME, end + 1000);
+
+        IngestionLogDrainer drainer = new IngestionLogDrainer(log, importService, aiExpenseService, jdbcTemplate,
+                transactionTemplate, mock(DataVersion.class), columnStore, mock(ExpenseChangeFeed.class),
+                new SimpleMeterRegistry(), LOG_NAME, 100);
+
+        assertThrows(IllegalStateException.class, drainer::start);
+        // Nothing is replayed and the stored offset is left for an operator to fix
+        assertEquals(end + 1000, storedOffset());
+        assertEquals(0, expenseCount());
+    }
+
+    private IngestionLog openLog() throws IOException {
+        IngestionLog log = new IngestionLog(new SimpleMeterRegistry(), "log", directory,
+                DataSize.ofKilobytes(64), Duration.ZERO);
+        log.open();
+        logs.add(log);
+        return log;
+    }
+
+    private IngestionLogDrainer startDrainer(IngestionLog log) {
+        IngestionLogDrainer drainer = new IngestionLogDrainer(log, importService, aiExpenseService, jdbcTemplate,
+                transactionTemplate, mock(DataVersion.class), columnStore, mock(ExpenseChangeFeed.class),
+                new SimpleMeterRegistry(), LOG_NAME, 100);
+        drainer.start();
+        drainers.add(drainer);
+        return drainer;
+    }
+
+    // Returns the offset just past the last appended entry
+    private static long append(IngestionLog log, String... descriptions) throws IOException {
+        long end = 0;
+        for (String description : descriptions) {
+            ExpenseRequest request = new ExpenseRequest(description, 10.0);
+            request.setDate("2026-01-01T10:00");
+            end = log.append(request);
+        }
+        return end;
+    }
+
+    private void insertRows(List<ExpenseImportService.PendingRow> rows) {
+        for (ExpenseImportService.PendingRow row : rows) {
+            jdbcTemplate.update("INSERT INTO expenses (description, amount) VALUES (?, ?)",
+                    row.description(), row.amount());
+        }
+    }
+
+    private long storedOffset() {
+        List<Long> stored = jdbcTemplate.queryForList(
+                "SELECT committed_offset FROM ingest_log_offsets WHERE log_name = ?", Long.class, LOG_NAME);
+        return stored.isEmpty() ? -1 : stored.get(0);
+    }
+
+    private int expenseCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses", Integer.class);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the drainer");
+            Thread.sleep(20);
+        }
+    }
+}
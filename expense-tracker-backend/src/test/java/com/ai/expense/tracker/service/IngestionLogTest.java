@@ -0,0 +1,229 @@
+package com.ai.expense.tracker.service;
+
+import com.ai.expense.tracker.dto.ExpenseRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IngestionLogTest {
+
+    // "coffee" encodes to a 42-byte payload, so five 50-byte records fit in a segment and the sixth rolls
+    private static final int SEGMENT_SIZE = 256;
+    private static final int RECORD_SIZE = 50;
+
+    @TempDir
+    Path directory;
+
+    private final List<IngestionLog> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeLogs() throws InterruptedException {
+        for (IngestionLog log : opened) {
+            log.close();
+        }
+    }
+
+    @Test
+    void appendedEntriesAreReadBackInOrder() throws IOException {
+        IngestionLog log = open();
+
+        long first = log.append(request("coffee", 4.5));
+        long second = log.append(request("lunch", 12.0));
+
+        IngestionLog.Batch batch = log.read(log.startOffset(), 10);
+        assertEquals(2, batch.entries().size());
+        assertEquals("coffee", batch.entries().get(0).description());
+        assertEquals(4.5, batch.entries().get(0).amount());
+        assertEquals(LocalDateTime.parse("2026-01-01T10:00"), batch.entries().get(0).date());
+        assertEquals(first, batch.entries().get(0).next());
+        assertEquals("lunch", batch.entries().get(1).description());
+        assertEquals(second, batch.entries().get(1).next());
+        assertEquals(second, batch.next());
+        assertEquals(second, log.durableOffset());
+    }
+
+    @Test
+    void reopeningRecoversEveryDurableEntry() throws Exception {
+        IngestionLog log = open();
+        log.append(request("coffee", 1.0));
+        long end = log.append(request("coffee", 2.0));
+        log.close();
+
+        IngestionLog reopened = open();
+        assertEquals(end, reopened.durableOffset());
+        assertEquals(2, reopened.read(0, 10).entries().size());
+        assertEquals(2L, reopened.getStats().get("lagEntries"));
+
+        // New appends continue after the recovered entries
+        assertEquals(end + RECORD_SIZE, reopened.append(request("coffee", 3.0)));
+        assertEquals(3, reopened.read(0, 10).entries().size());
+    }
+
+    @Test
+    void recoveryStopsAtGarbageAfterTheLastEntry() throws Exception {
+        IngestionLog log = open();
+        log.append(request("coffee", 1.0));
+        long end = log.append(request("coffee", 2.0));
+        log.close();
+
+        // A record header whose payload never made it to disk: plausible length, wrong checksum
+        ByteBuffer torn = ByteBuffer.allocate(12);
+        torn.putInt(20).putInt(0xCAFE).put(new byte[] {1, 2, 3, 4}).flip();
+        writeAt(segment(0), end, torn);
+
+        IngestionLog reopened = open();
+        assertEquals(end, reopened.durableOffset());
+        assertEquals(2, reopened.read(0, 10).entries().size());
+
+        // The torn bytes were cleared, so the next entry is readable where they were
+        reopened.append(request("lunch", 3.0));
+        IngestionLog.Batch batch = reopened.read(0, 10);
+        assertEquals(3, batch.entries().size());
+        assertEquals("lunch", batch.entries().get(2).description());
+    }
+
+    @Test
+    void recoveryDropsAnEntryThatFailsItsChecksum() throws Exception {
+        IngestionLog log = open();
+        long first = log.append(request("coffee", 1.0));
+        log.append(request("coffee", 2.0));
+        log.close();
+
+        // Flip a byte inside the second record's payload
+        writeAt(segment(0), first + 10, ByteBuffer.wrap(new byte[] {0x7F}));
+
+        IngestionLog reopened = open();
+        assertEquals(first, reopened.durableOffset());
+        assertEquals(1, reopened.read(0, 10).entries().size());
+    }
+
+    @Test
+    void entriesSpanASegmentRoll() throws Exception {
+        IngestionLog log = open();
+        List<Long> ends = appendCoffees(log, 8);
+
+        // Five records fill the first segment; the sixth starts the next one at its base offset
+        assertEquals(5L * RECORD_SIZE, ends.get(4));
+        assertEquals(SEGMENT_SIZE + RECORD_SIZE, ends.get(5));
+        assertTrue(Files.exists(segment(0)));
+        assertTrue(Files.exists(segment(SEGMENT_SIZE)));
+
+        IngestionLog.Batch batch = log.read(0, 100);
+        assertEquals(8, batch.entries().size());
+        assertEquals(SEGMENT_SIZE, batch.entries().get(5).offset());
+        for (int i = 0; i < 8; i++) {
+            assertEquals(i + 1.0, batch.entries().get(i).amount());
+        }
+        // Reading from the end of the first segment's records skips its roll marker
+        assertEquals(SEGMENT_SIZE, log.read(ends.get(4), 1).entries().get(0).offset());
+
+        log.close();
+        IngestionLog reopened = open();
+        assertEquals(ends.get(7), reopened.durableOffset());
+        assertEquals(8, reopened.read(0, 100).entries().size());
+    }
+
+    @Test
+    void countEntriesStopsAtTheGivenBoundary() throws IOException {
+        IngestionLog log = open();
+        List<Long> ends = appendCoffees(log, 8);
+
+        assertEquals(8, log.countEntries(0, ends.get(7)));
+        assertEquals(5, log.countEntries(0, ends.get(4)));
+        assertEquals(3, log.countEntries(ends.get(4), ends.get(7)));
+        assertEquals(0, log.countEntries(ends.get(7), ends.get(7)));
+    }
+
+    @Test
+    void releaseDeletesOnlySegmentsThatAreFullyApplied() throws IOException {
+        IngestionLog log = open();
+        List<Long> ends = appendCoffees(log, 8);
+
+        // Everything in the first segment is applied, but its end is not yet passed
+        log.release(ends.get(4), 5);
+        assertTrue(Files.exists(segment(0)));
+        assertEquals(0L, log.startOffset());
+        assertEquals(3L, log.getStats().get("lagEntries"));
+
+        log.release(ends.get(5), 1);
+        assertFalse(Files.exists(segment(0)));
+        assertEquals(SEGMENT_SIZE, log.startOffset());
+        assertEquals(2L, log.getStats().get("lagEntries"));
+        assertEquals(2, log.read(ends.get(5), 10).entries().size());
+
+        // The active segment is kept even when everything in it has been applied
+        log.release(ends.get(7), 2);
+        assertTrue(Files.exists(segment(SEGMENT_SIZE)));
+        assertEquals(0L, log.getStats().get("lagEntries"));
+    }
+
+    @Test
+    void resumeFromCountsOnlyUnappliedEntries() throws Exception {
+        IngestionLog log = open();
+        List<Long> ends = appendCoffees(log, 4);
+        log.close();
+
+        IngestionLog reopened = open();
+        reopened.resumeFrom(ends.get(1));
+        assertEquals(2L, reopened.getStats().get("lagEntries"));
+        assertEquals(ends.get(3) - ends.get(1), reopened.getStats().get("lagBytes"));
+    }
+
+    @Test
+    void appendRejectsAnEntryLargerThanASegment() throws IOException {
+        IngestionLog log = open();
+
+        assertThrows(IllegalArgumentException.class, () -> log.append(request("x".repeat(SEGMENT_SIZE), 1.0)));
+        assertEquals(0, log.read(0, 10).entries().size());
+    }
+
+    private IngestionLog open() throws IOException {
+        IngestionLog log = new IngestionLog(new SimpleMeterRegistry(), "log", directory,
+                DataSize.ofBytes(SEGMENT_SIZE), Duration.ZERO);
+        log.open();
+        opened.add(log);
+        return log;
+    }
+
+    private static List<Long> appendCoffees(IngestionLog log, int count) throws IOException {
+        List<Long> ends = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ends.add(log.append(request("coffee", i + 1.0)));
+        }
+        return ends;
+    }
+
+    private static ExpenseRequest request(String description, double amount) {
+        ExpenseRequest request = new ExpenseRequest(description, amount);
+        request.setDate("2026-01-01T10:00");
+        return request;
+    }
+
+    private Path segment(long base) {
+        return directory.resolve(String.format("%020d.log", base));
+    }
+
+    private static void writeAt(Path file, long position, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(bytes, position);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.ai.expense.tracker.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class KeywordMatcherTest {
+
+    private static final List<String> FRAGMENTS = List.of(
+            "food", "grocery", "restaurant", "bus", "train", "uber", "taxi", "gas", "fuel", "movie", "netflix",
+            "game", "concert", "entertainment", "bill", "electric", "water", "rent", "mortgage", "medical",
+            "doctor", "hospital", "pharmacy", "shop", "store", "mall", "amazon", "coffee", "the", "at", "to",
+            "business", "vegas", "parent", "FOOD", "Uber", "rest", "mov", " ", "-", "é");
+
+    private final KeywordCategorizer defaults = new KeywordCategorizer(new MockEnvironment(), null, false);
+
+    @Test
+    void defaultRulesAgreeWithTheOldIfElseChainOnTies() {
+        List<String> descriptions = List.of(
+                "Uber to the restaurant",          // FOOD beats TRANSPORT
+                "Grocery store run",               // FOOD beats SHOPPING
+                "Game night at the mall",          // ENTERTAINMENT beats SHOPPING
+                "Pharmacy bill",                   // BILLS beats HEALTH
+                "Rent, then food",                 // priority decides, not position in the text
+                "Netflix on Amazon",
+                "Business lunch",                  // substring matches, like contains()
+                "Trip to Vegas",
+                "Parent teacher meeting",
+                "NETFLIX SUBSCRIPTION",
+                "Coffee",
+                "");
+        for (String description : descriptions) {
+            assertEquals(legacyFallbackCategorization(description), defaults.categorize(description), description);
+        }
+    }
+
+    @Test
+    void defaultRulesAgreeWithTheOldIfElseChainOnRandomDescriptions() {
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder description = new StringBuilder();
+            int parts = 1 + random.nextInt(5);
+            for (int p = 0; p < parts; p++) {
+                description.append(FRAGMENTS.get(random.nextInt(FRAGMENTS.size())));
+            }
+            String text = description.toString();
+            assertEquals(legacyFallbackCategorization(text), defaults.categorize(text), text);
+        }
+    }
+
+    @Test
+    void lowestPriorityWinsWhateverTheKeywordOrder() {
+        KeywordMatcher matcher = KeywordMatcher.build(List.of(
+                new KeywordMatcher.Keyword("store", "SHOPPING", 5),
+                new KeywordMatcher.Keyword("coffee", "FOOD", 0),
+                new KeywordMatcher.Keyword("coffee", "DRINKS", 3)), "OTHER");
+
+        assertEquals("FOOD", matcher.match("Coffee store"));
+        assertEquals("FOOD", matcher.match("store coffee"));
+        assertEquals("SHOPPING", matcher.match("Bookstore"));
+    }
+
+    @Test
+    void keywordEndingInsideALongerOneIsFound() {
+        // "bc" only completes through the failure link of the partial "abcd" match
+        KeywordMatcher matcher = KeywordMatcher.build(List.of(
+                new KeywordMatcher.Keyword("abcd", "LONG", 2),
+                new KeywordMatcher.Keyword("bc", "SHORT", 1)), "NONE");
+
+        assertEquals("SHORT", matcher.match("abcd"));
+        assertEquals("SHORT", matcher.match("abce"));
+        assertEquals("NONE", matcher.match("acbd"));
+    }
+
+    @Test
+    void matchesNonAsciiKeywordsCaseInsensitively() {
+        KeywordMatcher matcher = KeywordMatcher.build(List.of(
+                new KeywordMatcher.Keyword("Café", "FOOD", 0),
+                new KeywordMatcher.Keyword("müller", "SHOPPING", 1)), "OTHER");
+
+        assertEquals("FOOD", matcher.match("CAFÉ latte"));
+        assertEquals("SHOPPING", matcher.match("Müller drugstore"));
+        assertEquals("OTHER", matcher.match("Cafe latte"));
+    }
+
+    @Test
+    void nullEmptyAndUnmatchedTextGetTheDefault() {
+        KeywordMatcher matcher = KeywordMatcher.build(List.of(
+                new KeywordMatcher.Keyword("", "EMPTY", 0),
+                new KeywordMatcher.Keyword("taxi", "TRANSPORT", 1)), "OTHER");
+
+        assertEquals("OTHER", matcher.match(null));
+        assertEquals("OTHER", matcher.match(""));
+        assertEquals("OTHER", matcher.match("tax"));
+        assertEquals("TRANSPORT", matcher.match("taxi"));
+    }
+
+    // fallbackCategorization as it was before the keyword automaton (see CategorizationBenchmark)
+    private static String legacyFallbackCategorization(String description) {
+        String lowerDesc = description.toLowerCase();
+
+        if (lowerDesc.contains("food") || lowerDesc.contains("grocery") || lowerDesc.contains("restaurant")) {
+            return "FOOD";
+        } else if (lowerDesc.contains("bus") || lowerDesc.contains("train") || lowerDesc.contains("uber") ||
+                lowerDesc.contains("taxi") || lowerDesc.contains("gas") || lowerDesc.contains("fuel")) {
+            return "TRANSPORT";
+        } else if (lowerDesc.contains("movie") || lowerDesc.contains("netflix") || lowerDesc.contains("game") ||
+                lowerDesc.contains("concert") || lowerDesc.contains("entertainment")) {
+            return "ENTERTAINMENT";
+        } else if (lowerDesc.contains("bill") || lowerDesc.contains("electric") || lowerDesc.contains("water") ||
+                lowerDesc.contains("rent") || lowerDesc.contains("mortgage")) {
+            return "BILLS";
+        } else if (lowerDesc.contains("medical") || lowerDesc.contains("doctor") || lowerDesc.contains("hospital") ||
+                lowerDesc.contains("pharmacy")) {
+            return "HEALTH";
+        } else if (lowerDesc.contains("shop") || lowerDesc.contains("store") || lowerDesc.contains("mall") ||
+                lowerDesc.contains("amazon")) {
+            return "SHOPPING";
+        } else {
+            return "OTHER";
+        }
+    }
+}
@@ -1,5 +1,6 @@
 import { Component, inject } from '@angular/core';
 import { ExpenseService } from '../../services/expense-service';
+import { ExpenseSummary } from '../../interfaces/expense-summary';
 import { NotificationService } from '../../services/notification-service';
 import { CommonModule } from '@angular/common';
 import { RouterLink } from '@angular/router';
@@ -23,25 +24,23 @@ export class DashboardComponent {
   loading = false;
 
   ngOnInit() {
+    // Only the loaded pages are known here; that is plenty for the five most recent
     this.expenseService.expenses$.subscribe(expenses => {
-      this.expenseCount = expenses.length;
-      this.recentExpenses = expenses
+      this.recentExpenses = [...expenses]
         .sort((a, b) => new Date(b.date).getTime() - new Date(a.date).getTime())
         .slice(0, 5);
-
-      this.calculateMetrics(expenses);
     });
 
     this.expenseService.summary$.subscribe(summary => {
       this.summary = summary;
+      this.calculateMetrics(summary);
       this.calculateCategoryData(summary);
     });
   }
 
-  private calculateMetrics(expenses: any[]) {
-    this.averageExpense = expenses.length > 0
-      ? expenses.reduce((sum, exp) => sum + exp.amount, 0) / expenses.length
-      : 0;
+  private calculateMetrics(summary: ExpenseSummary) {
+    this.expenseCount = summary.count;
+    this.averageExpense = summary.count > 0 ? summary.total / summary.count : 0;
   }
 
   private calculateCategoryData(summary: any) {
@@ -28,13 +28,39 @@ export class ExpenseListComponent {
   totalAmount = 0;
   addingExpense = false;
   deletingId: number | null = null;
+  hasMore = false;
+  loadingMore = false;
 
   ngOnInit() {
     this.expenseService.expenses$.subscribe(expenses => {
       this.expenses = expenses;
       this.applyFilters();
       this.updateCategories();
-      this.calculateTotal();
+    });
+
+    // Total of every expense, including the pages not loaded yet
+    this.expenseService.summary$.subscribe(summary => {
+      this.totalAmount = summary.total;
+    });
+
+    this.expenseService.hasMore$.subscribe(hasMore => {
+      this.hasMore = hasMore;
+    });
+  }
+
+  loadMore() {
+    this.loadingMore = true;
+    this.expenseService.loadMore().subscribe({
+      error: (error) => {
+        this.loadingMore = false;
+        this.notificationService.show({
+          type: 'error',
+          message: 'Failed to load more expenses: ' + error.message
+        });
+      },
+      complete: () => {
+        this.loadingMore = false;
+      }
     });
   }
 
@@ -137,8 +163,4 @@ export class ExpenseListComponent {
     const uniqueCategories = [...new Set(this.expenses.map(e => e.category))];
     this.categories = uniqueCategories.sort();
   }
-
-  private calculateTotal() {
-    this.totalAmount = this.expenses.reduce((sum, expense) => sum + expense.amount, 0);
-  }
 }
@@ -1,5 +1,6 @@
 import { Component, inject } from '@angular/core';
 import { ExpenseService } from '../../services/expense-service';
+import { ExpenseSummary } from '../../interfaces/expense-summary';
 import { NotificationService } from '../../services/notification-service';
 import { CommonModule } from '@angular/common';
 
@@ -23,16 +24,11 @@ export class InsightsComponent {
   categoryDistribution: any[] = [];
 
   ngOnInit() {
-    this.expenseService.expenses$.subscribe(expenses => {
-      this.expenseCount = expenses.length;
-      this.calculateStatistics(expenses);
-    });
-
     this.expenseService.summary$.subscribe(summary => {
-      if (summary) {
-        this.totalAmount = summary.total;
-        this.calculateCategoryDistribution(summary.categoryBreakdown);
-      }
+      this.expenseCount = summary.count;
+      this.totalAmount = summary.total;
+      this.calculateStatistics(summary);
+      this.calculateCategoryDistribution(summary.categoryBreakdown);
     });
   }
 
@@ -109,25 +105,20 @@ export class InsightsComponent {
     });
   }
 
-  private calculateStatistics(expenses: any[]) {
-    this.totalAmount = expenses.reduce((sum, exp) => sum + exp.amount, 0);
-
-    // Calculate monthly average (assuming 30 days for simplicity)
-    if (expenses.length > 0) {
-      const firstExpense = new Date(expenses[expenses.length - 1].date);
-      const lastExpense = new Date(expenses[0].date);
-      const monthsDiff = (lastExpense.getTime() - firstExpense.getTime()) / (1000 * 60 * 60 * 24 * 30);
-      this.monthlyAverage = monthsDiff > 0 ? this.totalAmount / Math.max(monthsDiff, 1) : this.totalAmount;
+  private calculateStatistics(summary: ExpenseSummary) {
+    // Average over the months from the first to the last one with spending
+    const months = summary.monthlyTrend;
+    if (months.length > 0) {
+      const [firstYear, firstMonth] = months[0].month.split('-').map(Number);
+      const [lastYear, lastMonth] = months[months.length - 1].month.split('-').map(Number);
+      const monthsSpanned = (lastYear - firstYear) * 12 + (lastMonth - firstMonth) + 1;
+      this.monthlyAverage = summary.total / monthsSpanned;
+    } else {
+      this.monthlyAverage = 0;
     }
 
-    // Find top category
-    const categoryTotals = expenses.reduce((acc, exp) => {
-      acc[exp.category] = (acc[exp.category] || 0) + exp.amount;
-      return acc;
-    }, {} as { [key: string]: number });
-
-    const topCategoryEntry = Object.entries(categoryTotals)
-      .sort((a, b) => (b[1] as number) - (a[1] as number))[0];
+    const topCategoryEntry = Object.entries(summary.categoryBreakdown)
+      .sort((a, b) => b[1] - a[1])[0];
 
     this.topCategory = topCategoryEntry ? topCategoryEntry[0] : '';
   }
@@ -7,6 +7,8 @@ export const apiInterceptor: HttpInterceptorFn = (req, next) => {
   const notificationService = inject(NotificationService);
   const apiReq = req.clone({
     url: `http://localhost:8080${req.url}`,
+    // Sends the backend's read-your-writes cookie, so reads right after a write skip lagging replicas
+    withCredentials: true,
     headers: req.headers.set('Content-Type', 'application/json')
   });
 
@@ -1,5 +1,6 @@
 export interface ExpenseSummary {
     total: number;
+    count: number;
     categoryBreakdown: { [category: string]: number };
     monthlyTrend: { month: string; amount: number }[];
 }
@@ -1,9 +1,12 @@
 import { Injectable, inject } from '@angular/core';
-import { HttpClient, HttpErrorResponse } from '@angular/common/http';
+import { HttpClient, HttpErrorResponse, HttpParams } from '@angular/common/http';
 import {
   BehaviorSubject,
+  EMPTY,
   Observable,
+  Subject,
   catchError,
+  debounceTime,
   map,
   tap,
   throwError,
@@ -18,6 +21,20 @@ interface ApiResponse<T> {
   message?: string;
   data?: T;
   error?: string;
+  nextCursor?: string;
+}
+
+interface BucketStats {
+  count: number;
+  total: number;
+}
+
+// Server-side totals over every expense, not just the pages loaded so far
+interface SpendingSummary {
+  totalCount: number;
+  totalAmount: number;
+  byCategory: { [category: string]: BucketStats };
+  byMonth: { [month: string]: BucketStats };
 }
 
 @Injectable({
@@ -30,22 +47,72 @@ export class ExpenseService {
   private expensesSubject = new BehaviorSubject<Expense[]>([]);
   public expenses$ = this.expensesSubject.asObservable().pipe(shareReplay(1));
 
-  public categories$ = this.expenses$.pipe(
-    map(expenses => this.calculateCategoryBreakdown(expenses))
-  );
+  private nextCursor: string | null = null;
+  private hasMoreSubject = new BehaviorSubject<boolean>(false);
+  public hasMore$ = this.hasMoreSubject.asObservable();
 
-  public summary$ = this.expenses$.pipe(
-    map(expenses => this.calculateSummary(expenses))
-  );
+  private summarySubject = new BehaviorSubject<ExpenseSummary>({
+    total: 0,
+    count: 0,
+    categoryBreakdown: {},
+    monthlyTrend: []
+  });
+  public summary$ = this.summarySubject.asObservable();
+
+  public categories$ = this.summary$.pipe(map(summary => summary.categoryBreakdown));
+
+  // Bursts of feed events collapse into one summary request
+  private summaryRefresh = new Subject<void>();
 
   constructor() {
+    this.summaryRefresh
+      .pipe(
+        debounceTime(300),
+        switchMap(() => this.loadSummary().pipe(catchError(() => EMPTY)))
+      )
+      .subscribe();
     this.loadExpenses().subscribe();
+    this.listenForChanges();
   }
 
+  // Replaces the list with the first page
   private loadExpenses(): Observable<Expense[]> {
-    return this.http.get<ApiResponse<Expense[]>>(this.apiUrl).pipe(
+    this.summaryRefresh.next();
+    return this.loadPage(null).pipe(
+      tap(expenses => this.expensesSubject.next(expenses))
+    );
+  }
+
+  // Appends the page after the ones already loaded
+  loadMore(): Observable<Expense[]> {
+    if (this.nextCursor === null) {
+      return EMPTY;
+    }
+    return this.loadPage(this.nextCursor).pipe(
+      tap(expenses => {
+        const current = this.expensesSubject.value;
+        const added = expenses.filter(expense => !current.some(existing => existing.id === expense.id));
+        this.expensesSubject.next([...current, ...added]);
+      })
+    );
+  }
+
+  private loadPage(cursor: string | null): Observable<Expense[]> {
+    const params = cursor ? new HttpParams().set('cursor', cursor) : undefined;
+    return this.http.get<ApiResponse<Expense[]>>(this.apiUrl, { params }).pipe(
+      tap(response => {
+        this.nextCursor = response.nextCursor ?? null;
+        this.hasMoreSubject.next(this.nextCursor !== null);
+      }),
       map(response => response.data ?? []),
-      tap(expenses => this.expensesSubject.next(expenses)),
+      catchError(this.handleError)
+    );
+  }
+
+  private loadSummary(): Observable<ExpenseSummary> {
+    return this.http.get<ApiResponse<SpendingSummary>>(`${this.apiUrl}/stats/summary`).pipe(
+      map(response => this.toExpenseSummary(response.data)),
+      tap(summary => this.summarySubject.next(summary)),
       catchError(this.handleError)
     );
   }
@@ -53,9 +120,12 @@ export class ExpenseService {
   addExpense(expense: Omit<Expense, 'id'>): Observable<Expense> {
     return this.http.post<ApiResponse<Expense>>(this.apiUrl, expense).pipe(
       map(response => response.data as Expense),
+      // A write queued in the backend's ingestion log has no id yet; the change feed delivers it later
       tap(newExpense => {
-        const current = this.expensesSubject.value;
-        this.expensesSubject.next([...current, newExpense]);
+        if (newExpense?.id != null) {
+          this.upsert(newExpense);
+        }
+        this.summaryRefresh.next();
       }),
       catchError(this.handleError)
     );
@@ -67,11 +137,47 @@ export class ExpenseService {
       tap(() => {
         const current = this.expensesSubject.value;
         this.expensesSubject.next(current.filter(expense => expense.id !== id));
+        this.summaryRefresh.next();
       }),
       catchError(this.handleError)
     );
   }
 
+  // Applies server-pushed changes instead of reloading the list. The browser reconnects with
+  // Last-Event-ID by itself; a resync or a bulk import falls back to one full reload.
+  private listenForChanges(): void {
+    if (typeof EventSource === 'undefined') {
+      return;
+    }
+    const events = new EventSource(`${this.apiUrl}/events`);
+    events.addEventListener('expense.created', event => {
+      this.upsert(JSON.parse((event as MessageEvent).data) as Expense);
+      this.summaryRefresh.next();
+    });
+    events.addEventListener('expense.deleted', event => {
+      const { id } = JSON.parse((event as MessageEvent).data) as { id: number };
+      this.expensesSubject.next(this.expensesSubject.value.filter(expense => expense.id !== id));
+      this.summaryRefresh.next();
+    });
+    events.addEventListener('expense.categorized', event => {
+      const { id, category } = JSON.parse((event as MessageEvent).data) as { id: number; category: string };
+      this.expensesSubject.next(this.expensesSubject.value.map(expense =>
+        expense.id === id ? { ...expense, category } : expense));
+      this.summaryRefresh.next();
+    });
+    const reload = () => this.loadExpenses().subscribe();
+    events.addEventListener('resync', reload);
+    events.addEventListener('expenses.imported', reload);
+  }
+
+  // The creating tab sees its own expense both in the POST response and on the feed
+  private upsert(expense: Expense): void {
+    const current = this.expensesSubject.value;
+    if (!current.some(existing => existing.id === expense.id)) {
+      this.expensesSubject.next([...current, expense]);
+    }
+  }
+
   getInsights(): Observable<string> {
     return this.http.get<ApiResponse<string>>(`${this.apiUrl}/insights`).pipe(
       map(response => response.data ?? ''),
@@ -79,32 +185,20 @@ export class ExpenseService {
     );
   }
 
-  private calculateCategoryBreakdown(expenses: Expense[]): { [category: string]: number } {
-    return expenses.reduce((acc, expense) => {
-      acc[expense.category] = (acc[expense.category] || 0) + expense.amount;
-      return acc;
-    }, {} as { [category: string]: number });
-  }
-
-  private calculateSummary(expenses: Expense[]): ExpenseSummary {
-    const total = expenses.reduce((sum, expense) => sum + expense.amount, 0);
-    const categoryBreakdown = this.calculateCategoryBreakdown(expenses);
-
-    // Simple monthly trend calculation
-    const monthlyTrend = expenses.reduce((acc, expense) => {
-      const month = new Date(expense.date).toISOString().substring(0, 7); // YYYY-MM
-      acc[month] = (acc[month] || 0) + expense.amount;
-      return acc;
-    }, {} as { [month: string]: number });
-
-    const monthlyTrendArray = Object.entries(monthlyTrend)
-      .map(([month, amount]) => ({ month, amount }))
-      .sort((a, b) => a.month.localeCompare(b.month));
+  private toExpenseSummary(summary?: SpendingSummary): ExpenseSummary {
+    const totals = (buckets: { [key: string]: BucketStats } = {}) =>
+      Object.entries(buckets).reduce((acc, [key, stats]) => {
+        acc[key] = stats.total;
+        return acc;
+      }, {} as { [key: string]: number });
 
     return {
-      total,
-      categoryBreakdown,
-      monthlyTrend: monthlyTrendArray
+      total: summary?.totalAmount ?? 0,
+      count: summary?.totalCount ?? 0,
+      categoryBreakdown: totals(summary?.byCategory),
+      monthlyTrend: Object.entries(totals(summary?.byMonth))
+        .map(([month, amount]) => ({ month, amount }))
+        .sort((a, b) => a.month.localeCompare(b.month))
     };
   }
 